@@ -0,0 +1,77 @@
+package com.usef.workshop.todo.benchmark;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.entity.Category;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.service.CategoryService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sample tasks shaped like the ones TaskDataInitializer seeds.
+ *
+ * @author HP
+ **/
+final class BenchmarkData {
+
+    static final String[] CATEGORIES = {"Work", "Personal", "Shopping", "Health", "Learning", "Other"};
+    static final String[] WORDS = {"report", "groceries", "gym", "read", "call", "organize", "project", "review",
+            "invoice", "meeting", "plan", "email", "clean", "budget", "doctor", "course"};
+
+    private BenchmarkData() {
+    }
+
+    static TaskDTO dto(int i) {
+        return TaskDTO.builder()
+                .uuid(UUID.randomUUID().toString())
+                .title(WORDS[i % WORDS.length] + " task " + i)
+                .description("Finish the " + WORDS[(i * 7) % WORDS.length] + " before the " + WORDS[(i * 3) % WORDS.length] + ".")
+                .priority(Task.Priority.values()[i % 3].name())
+                .categoryName(CATEGORIES[i % CATEGORIES.length])
+                .completed(i % 4 == 0)
+                .status(Task.Status.values()[i % 3].name())
+                .dueDate(LocalDate.of(2025, 7, 1).plusDays(i % 90))
+                .reminderDateTime(LocalDateTime.of(2025, 7, 1, 9, 0).plusHours(i % 2000))
+                .createdAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusSeconds(i))
+                .build();
+    }
+
+    static List<TaskDTO> dtos(int count) {
+        List<TaskDTO> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(dto(i));
+        }
+        return tasks;
+    }
+
+    /**
+     * Resolves names without a database, like a warm category cache.
+     */
+    static CategoryService categoryService() {
+        return new CategoryService() {
+            @Override
+            public Category findByName(String name) {
+                for (int i = 0; i < CATEGORIES.length; i++) {
+                    if (CATEGORIES[i].equals(name)) {
+                        return new Category((long) i + 1, name);
+                    }
+                }
+                throw new IllegalArgumentException(name);
+            }
+
+            @Override
+            public Category ensureExists(String name) {
+                return findByName(name);
+            }
+
+            @Override
+            public Category save(Category category) {
+                return category;
+            }
+        };
+    }
+}
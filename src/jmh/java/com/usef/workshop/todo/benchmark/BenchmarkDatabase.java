@@ -0,0 +1,24 @@
+package com.usef.workshop.todo.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * JDBC connection for the database-level benchmarks, H2 in PostgreSQL mode unless {@code jmh.jdbc.url} is set.
+ *
+ * @author HP
+ **/
+final class BenchmarkDatabase {
+
+    static final String URL = System.getProperty("jmh.jdbc.url", "jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+    static final String USER = System.getProperty("jmh.jdbc.user", "sa");
+    static final String PASSWORD = System.getProperty("jmh.jdbc.password", "");
+
+    private BenchmarkDatabase() {
+    }
+
+    static Connection connect() throws SQLException {
+        return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+}
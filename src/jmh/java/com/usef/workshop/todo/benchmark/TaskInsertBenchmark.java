@@ -0,0 +1,124 @@
+package com.usef.workshop.todo.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of the statement pattern Hibernate emits for Task ids.
+ * <ul>
+ *     <li>{@code perRowSequence}: allocationSize = 1, one nextval and one INSERT round-trip per row (before)</li>
+ *     <li>{@code pooledSequenceBatched}: pooled-lo with 50 ids per nextval and JDBC batches of 50 (after)</li>
+ * </ul>
+ * Runs against in-memory H2 by default, which hides network latency. Point it at PostgreSQL with
+ * {@code -Djmh.jdbc.url=jdbc:postgresql://localhost:5432/demo_db -Djmh.jdbc.user=root -Djmh.jdbc.password=password}
+ * to see the round-trip savings.
+ *
+ * @author HP
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskInsertBenchmark {
+
+    static final int ROWS = 1_000;
+    static final int BLOCK = 50;
+
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = BenchmarkDatabase.connect();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bench_tasks");
+            statement.execute("create table bench_tasks (id bigint primary key, uuid uuid not null unique, title varchar(255) not null)");
+            statement.execute("drop sequence if exists bench_seq_single");
+            statement.execute("drop sequence if exists bench_seq_pooled");
+            statement.execute("create sequence bench_seq_single increment by 1");
+            statement.execute("create sequence bench_seq_pooled increment by " + BLOCK);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("delete from bench_tasks");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void perRowSequence() throws SQLException {
+        try (PreparedStatement nextval = connection.prepareStatement("select nextval('bench_seq_single')");
+             PreparedStatement insert = connection.prepareStatement("insert into bench_tasks (id, uuid, title) values (?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                long id;
+                try (ResultSet rs = nextval.executeQuery()) {
+                    rs.next();
+                    id = rs.getLong(1);
+                }
+                bind(insert, id);
+                insert.executeUpdate();
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void pooledSequenceBatched() throws SQLException {
+        try (PreparedStatement nextval = connection.prepareStatement("select nextval('bench_seq_pooled')");
+             PreparedStatement insert = connection.prepareStatement("insert into bench_tasks (id, uuid, title) values (?, ?, ?)")) {
+            long low = 0;
+            for (int i = 0; i < ROWS; i++) {
+                if (i % BLOCK == 0) {
+                    try (ResultSet rs = nextval.executeQuery()) {
+                        rs.next();
+                        low = rs.getLong(1);
+                    }
+                }
+                bind(insert, low + i % BLOCK);
+                insert.addBatch();
+                if ((i + 1) % BLOCK == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private static void bind(PreparedStatement insert, long id) throws SQLException {
+        insert.setLong(1, id);
+        insert.setObject(2, UUID.randomUUID());
+        insert.setString(3, "Task " + id);
+    }
+}
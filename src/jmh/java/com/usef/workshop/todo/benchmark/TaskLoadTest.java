@@ -0,0 +1,203 @@
+package com.usef.workshop.todo.benchmark;
+
+import com.usef.workshop.todo.TodoAppApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load test of {@code GET /api/v1/tasks/{uuid}} with the platform-thread Tomcat pool and with
+ * virtual threads, reporting throughput and latency percentiles for each mode.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.main=com.usef.workshop.todo.benchmark.TaskLoadTest
+ * -Djmh.args="clients=2000 seconds=30"}
+ * <p>
+ * Runs on the embedded H2 test profile by default. Blocking I/O is where virtual threads pay off, so point it at
+ * PostgreSQL through the usual {@code SPRING_DATASOURCE_URL/USERNAME/PASSWORD/DRIVER_CLASS_NAME} environment
+ * variables for representative numbers. Pinned virtual threads are reported by {@code jdk.tracePinnedThreads}.
+ *
+ * @author HP
+ **/
+public final class TaskLoadTest {
+
+    private TaskLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            System.setProperty("jdk.tracePinnedThreads", "short");
+        }
+
+        List<String> report = new ArrayList<>();
+        for (String mode : options.modes) {
+            report.add(run(mode, options).format(mode));
+        }
+        System.out.printf("%n%-9s %8s %12s %9s %9s %9s %9s %7s%n",
+                "mode", "clients", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        report.forEach(System.out::println);
+    }
+
+    private static Result run(String mode, Options options) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoAppApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                        "--spring.jpa.show-sql=false",
+                        // Every client comes from localhost: the rate and concurrency limits would measure themselves
+                        "--todo.limits.enabled=false",
+                        "--logging.level.root=WARN")) {
+            List<UUID> uuids = TaskRepositoryBenchmark.seed(context.getBean(JdbcTemplate.class), options.rows);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return drive(URI.create("http://localhost:" + port + "/api/v1/tasks/"), uuids, options);
+        }
+    }
+
+    private static Result drive(URI base, List<UUID> uuids, Options options) throws Exception {
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(options.seconds);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(clients)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .build()) {
+            List<Future<Client>> futures = new ArrayList<>(options.clients);
+            for (int i = 0; i < options.clients; i++) {
+                futures.add(clients.submit(() -> new Client().loop(http, base, uuids, measureFrom, measureUntil)));
+            }
+
+            Result result = new Result(options.clients, options.seconds);
+            for (Future<Client> future : futures) {
+                result.add(future.get());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * One client issuing requests back to back and keeping the latencies that fall inside the measured window.
+     */
+    private static final class Client {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        Client loop(HttpClient http, URI base, List<UUID> uuids, long measureFrom, long measureUntil) {
+            long now = System.nanoTime();
+            while (now < measureUntil) {
+                UUID uuid = uuids.get(ThreadLocalRandom.current().nextInt(uuids.size()));
+                HttpRequest request = HttpRequest.newBuilder(base.resolve(uuid.toString()))
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build();
+                long start = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                } catch (Exception e) {
+                    ok = false;
+                }
+                now = System.nanoTime();
+                if (start >= measureFrom && now <= measureUntil) {
+                    if (ok) {
+                        record(now - start);
+                    } else {
+                        errors++;
+                    }
+                }
+            }
+            return this;
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private static final class Result {
+        private final int clients;
+        private final int seconds;
+        private final List<long[]> latencies = new ArrayList<>();
+        private int total;
+        private int errors;
+
+        Result(int clients, int seconds) {
+            this.clients = clients;
+            this.seconds = seconds;
+        }
+
+        void add(Client client) {
+            latencies.add(Arrays.copyOf(client.latencies, client.count));
+            total += client.count;
+            errors += client.errors;
+        }
+
+        String format(String mode) {
+            long[] all = new long[total];
+            int offset = 0;
+            for (long[] part : latencies) {
+                System.arraycopy(part, 0, all, offset, part.length);
+                offset += part.length;
+            }
+            Arrays.sort(all);
+            return String.format("%-9s %8d %12.0f %9.2f %9.2f %9.2f %9.2f %7d",
+                    mode, clients, (double) total / seconds,
+                    millis(all, 0.50), millis(all, 0.99), millis(all, 0.999),
+                    all.length == 0 ? 0 : all[all.length - 1] / 1e6, errors);
+        }
+
+        private static double millis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+        }
+    }
+
+    private record Options(int clients, int seconds, int warmupSeconds, int rows, List<String> modes) {
+
+        static Options parse(String[] args) {
+            int clients = 2000;
+            int seconds = 30;
+            int warmupSeconds = 10;
+            int rows = 10_000;
+            List<String> modes = List.of("platform", "virtual");
+            for (String arg : args) {
+                String[] pair = arg.split("=", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Expected key=value, got " + arg);
+                }
+                switch (pair[0]) {
+                    case "clients" -> clients = Integer.parseInt(pair[1]);
+                    case "seconds" -> seconds = Integer.parseInt(pair[1]);
+                    case "warmup" -> warmupSeconds = Integer.parseInt(pair[1]);
+                    case "rows" -> rows = Integer.parseInt(pair[1]);
+                    case "modes" -> modes = List.of(pair[1].split(","));
+                    default -> throw new IllegalArgumentException("Unknown option " + pair[0]);
+                }
+            }
+            return new Options(clients, seconds, warmupSeconds, rows, modes);
+        }
+    }
+}
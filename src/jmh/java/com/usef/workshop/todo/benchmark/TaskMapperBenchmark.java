@@ -0,0 +1,91 @@
+package com.usef.workshop.todo.benchmark;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.mapper.TaskMapper;
+import com.usef.workshop.todo.entity.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.beans.PropertyDescriptor;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskMapper conversions and the partial-update copy done by updateByUuid on every PUT.
+ * {@code reflectiveCopy} keeps the former getNullPropertyNames + BeanUtils.copyProperties path as a baseline.
+ * Run with {@code -prof gc} to see allocation per operation.
+ *
+ * @author HP
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskMapperBenchmark {
+
+    private TaskMapper taskMapper;
+    private TaskDTO dto;
+    private Task entity;
+    private Task incoming;
+    private Task target;
+
+    @Setup
+    public void setUp() {
+        taskMapper = new TaskMapper(BenchmarkData.categoryService());
+        dto = BenchmarkData.dto(42);
+        entity = taskMapper.mapToEntity(dto);
+        entity.setCreatedAt(dto.createdAt());
+        incoming = taskMapper.mapToEntity(BenchmarkData.dto(7));
+        target = taskMapper.mapToEntity(dto);
+    }
+
+    @Benchmark
+    public TaskDTO mapToDTO() {
+        return taskMapper.mapToDTO(entity);
+    }
+
+    @Benchmark
+    public Task mapToEntity() {
+        return taskMapper.mapToEntity(dto);
+    }
+
+    @Benchmark
+    public Task copyNonNullFields() {
+        taskMapper.copyNonNullFields(incoming, target);
+        return target;
+    }
+
+    @Benchmark
+    public Task reflectiveCopy() {
+        BeanUtils.copyProperties(incoming, target, getNullPropertyNames(incoming));
+        return target;
+    }
+
+    private static String[] getNullPropertyNames(Object source) {
+        final BeanWrapper src = new BeanWrapperImpl(source);
+        PropertyDescriptor[] pds = src.getPropertyDescriptors();
+
+        Set<String> emptyNames = new HashSet<>();
+        for (PropertyDescriptor pd : pds) {
+            Object srcValue = src.getPropertyValue(pd.getName());
+            if (srcValue == null) {
+                emptyNames.add(pd.getName());
+            }
+        }
+        return emptyNames.toArray(new String[0]);
+    }
+}
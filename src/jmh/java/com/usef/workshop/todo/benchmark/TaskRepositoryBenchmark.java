@@ -0,0 +1,149 @@
+package com.usef.workshop.todo.benchmark;
+
+import com.usef.workshop.todo.TodoAppApplication;
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.dto.TaskPageDTO;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.service.TaskService;
+import com.usef.workshop.todo.service.search.InMemoryTaskSearchEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service and repository read paths against an embedded H2 database seeded with {@code rows} tasks.
+ * Scale up with {@code -p rows=1000000}; seeding uses JDBC batches so only the reads are measured.
+ *
+ * @author HP
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskRepositoryBenchmark {
+
+    static final int SEED_ID_OFFSET = 1_000_000_000;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private List<UUID> uuids;
+    private String middleCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        taskService = context.getBean(TaskService.class);
+        uuids = seed(context.getBean(JdbcTemplate.class), rows);
+        context.getBean(InMemoryTaskSearchEngine.class).rebuild();
+
+        TaskPageDTO page = taskService.findPageOrderedByCreatedAt(null, TaskBenchmarkPage.SIZE);
+        for (int i = 0; i < rows / TaskBenchmarkPage.SIZE / 2 && page.nextCursor() != null; i++) {
+            page = taskService.findPageOrderedByCreatedAt(page.nextCursor(), TaskBenchmarkPage.SIZE);
+        }
+        middleCursor = page.nextCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TaskPageDTO firstPage() {
+        return taskService.findPageOrderedByCreatedAt(null, TaskBenchmarkPage.SIZE);
+    }
+
+    @Benchmark
+    public TaskPageDTO pageAfterCursor() {
+        return taskService.findPageOrderedByCreatedAt(middleCursor, TaskBenchmarkPage.SIZE);
+    }
+
+    @Benchmark
+    public Task findByUuid() {
+        return taskService.findByUuid(uuids.get(ThreadLocalRandom.current().nextInt(uuids.size())).toString());
+    }
+
+    @Benchmark
+    public List<TaskDTO> searchByKeyword() {
+        return taskService.searchByKeyword(BenchmarkData.WORDS[ThreadLocalRandom.current().nextInt(BenchmarkData.WORDS.length)], 20);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<TaskDTO> findByCategory() {
+        return taskService.findByCategory(BenchmarkData.CATEGORIES[ThreadLocalRandom.current().nextInt(BenchmarkData.CATEGORIES.length)]);
+    }
+
+    static List<UUID> seed(JdbcTemplate jdbcTemplate, int rows) {
+        Map<String, Long> categoryIds = new java.util.HashMap<>();
+        jdbcTemplate.query("select id, name from categories",
+                rs -> { categoryIds.put(rs.getString("name"), rs.getLong("id")); });
+
+        List<UUID> uuids = new ArrayList<>(rows);
+        List<Object[]> batch = new ArrayList<>(1000);
+        for (int i = 0; i < rows; i++) {
+            TaskDTO dto = BenchmarkData.dto(i);
+            UUID uuid = UUID.fromString(dto.uuid());
+            uuids.add(uuid);
+            batch.add(new Object[]{
+                    (long) SEED_ID_OFFSET + i, uuid, dto.title(), dto.description(), dto.priority(),
+                    categoryIds.get(dto.categoryName()), dto.completed(), Date.valueOf(dto.dueDate()),
+                    Timestamp.valueOf(dto.reminderDateTime()), dto.status(), Timestamp.valueOf(dto.createdAt()),
+                    Timestamp.valueOf(dto.createdAt())
+            });
+            if (batch.size() == 1000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate("""
+                        insert into tasks (id, uuid, title, description, priority, category_id, completed,
+                                           due_date, reminder_date_time, status, created_at, updated_at)
+                        values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""", batch);
+                batch.clear();
+            }
+        }
+        return uuids;
+    }
+
+    /**
+     * Page size used by the dashboard.
+     */
+    static final class TaskBenchmarkPage {
+        static final int SIZE = 50;
+
+        private TaskBenchmarkPage() {
+        }
+    }
+}
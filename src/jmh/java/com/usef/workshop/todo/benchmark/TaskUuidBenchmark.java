@@ -0,0 +1,150 @@
+package com.usef.workshop.todo.benchmark;
+
+import com.usef.workshop.todo.entity.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random (v4) against time-ordered (v7) task uuids on a table already holding {@code rows} rows:
+ * <ul>
+ *     <li>{@code insertBatched}: rows per second through the unique uuid index, JDBC batches of 50</li>
+ *     <li>{@code lookupByUuid}: one task by uuid, the path of a TaskIdCache miss</li>
+ *     <li>{@code lookupById}: one task by primary key, the path of a TaskIdCache hit</li>
+ * </ul>
+ * The index locality only shows once it outgrows the buffer cache: run the 10M row case against PostgreSQL,
+ * {@code -p rows=10000000 -Djmh.jdbc.url=jdbc:postgresql://localhost:5432/demo_db -Djmh.jdbc.user=root
+ * -Djmh.jdbc.password=password}.
+ *
+ * @author HP
+ **/
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskUuidBenchmark {
+
+    static final int BATCH = 50;
+    static final int INSERTS = 1_000;
+    static final int SAMPLE = 10_000;
+
+    @Param({"v4", "v7"})
+    public String kind;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Connection connection;
+    private long nextId;
+    private final UUID[] sampleUuids = new UUID[SAMPLE];
+    private final long[] sampleIds = new long[SAMPLE];
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = BenchmarkDatabase.connect();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bench_uuid_tasks");
+            statement.execute("create table bench_uuid_tasks (id bigint primary key, uuid uuid not null unique, title varchar(255) not null)");
+        }
+        connection.setAutoCommit(false);
+        int every = Math.max(1, rows / SAMPLE);
+        try (PreparedStatement insert = connection.prepareStatement("insert into bench_uuid_tasks (id, uuid, title) values (?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                UUID uuid = bind(insert);
+                if (i % every == 0 && i / every < SAMPLE) {
+                    sampleUuids[i / every] = uuid;
+                    sampleIds[i / every] = nextId - 1;
+                }
+                insert.addBatch();
+                if ((i + 1) % 1_000 == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table bench_uuid_tasks");
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(INSERTS)
+    public void insertBatched() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("insert into bench_uuid_tasks (id, uuid, title) values (?, ?, ?)")) {
+            for (int i = 0; i < INSERTS; i++) {
+                bind(insert);
+                insert.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String lookupByUuid() throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("select title from bench_uuid_tasks where uuid = ?")) {
+            select.setObject(1, sampleUuids[ThreadLocalRandom.current().nextInt(SAMPLE)]);
+            return title(select);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String lookupById() throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("select title from bench_uuid_tasks where id = ?")) {
+            select.setLong(1, sampleIds[ThreadLocalRandom.current().nextInt(SAMPLE)]);
+            return title(select);
+        }
+    }
+
+    private UUID bind(PreparedStatement insert) throws SQLException {
+        long id = nextId++;
+        UUID uuid = kind.equals("v7") ? UuidV7.generate() : UUID.randomUUID();
+        insert.setLong(1, id);
+        insert.setObject(2, uuid);
+        insert.setString(3, "Task " + id);
+        return uuid;
+    }
+
+    private static String title(PreparedStatement select) throws SQLException {
+        try (ResultSet rs = select.executeQuery()) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
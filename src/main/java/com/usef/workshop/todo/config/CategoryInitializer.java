@@ -1,7 +1,6 @@
 package com.usef.workshop.todo.config;
 
-import com.usef.workshop.todo.entity.Category;
-import com.usef.workshop.todo.repo.CategoryRepository;
+import com.usef.workshop.todo.service.CategoryService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
@@ -16,10 +15,10 @@ import java.util.List;
 @Order(1)
 @Slf4j
 public class CategoryInitializer implements CommandLineRunner {
-    private final CategoryRepository categoryRepository;
+    private final CategoryService categoryService;
 
-    public CategoryInitializer(CategoryRepository categoryRepository) {
-        this.categoryRepository = categoryRepository;
+    public CategoryInitializer(CategoryService categoryService) {
+        this.categoryService = categoryService;
     }
 
     @Override
@@ -28,12 +27,9 @@ public class CategoryInitializer implements CommandLineRunner {
                 "Work", "Personal", "Shopping", "Health", "Learning", "Other"
         );
 
-        defaultCategories.forEach(name -> {
-            categoryRepository.findByName(name).orElseGet(() -> {
-                return categoryRepository.save(new Category(name));
-            });
-        });
+        // Also warms the name cache so TaskMapper never hits the database for these
+        defaultCategories.forEach(categoryService::ensureExists);
 
-        log.info("Sample categories inserted");
+        log.info("Sample categories inserted and cached");
     }
 }
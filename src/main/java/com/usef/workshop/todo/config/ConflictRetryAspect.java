@@ -0,0 +1,105 @@
+package com.usef.workshop.todo.config;
+
+import com.usef.workshop.todo.exception.TaskVersionMismatchException;
+import com.usef.workshop.todo.service.RetryOnConflict;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs a {@link RetryOnConflict} write again when it loses an optimistic lock, after
+ * a random pause within a window that doubles with each retry, so writers that collided don't collide again.
+ * Ordered just outside the transaction advice so each run gets a fresh transaction and persistence context;
+ * a write joining a caller's transaction isn't retried, since that transaction is already marked for rollback.
+ * Neither is one with an {@link RetryOnConflict.IfMatch} argument: the version it was checked against has moved,
+ * so its conflict is a failed precondition (412) right away.
+ * Once the retries are used up the failure reaches the client as 409. Retries are counted as
+ * {@code todo.task.conflict.retries{method}}.
+ *
+ * @author HP
+ **/
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConflictRetryAspect {
+
+    private final int retries;
+    private final Duration backoff;
+    private final MeterRegistry meterRegistry;
+
+    public ConflictRetryAspect(@Value("${todo.tasks.conflict-retries}") int retries,
+                               @Value("${todo.tasks.conflict-backoff}") Duration backoff,
+                               MeterRegistry meterRegistry) {
+        this.retries = retries;
+        this.backoff = backoff;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(com.usef.workshop.todo.service.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        Long expectedVersion = ifMatch(joinPoint);
+        if (expectedVersion != null) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                throw new TaskVersionMismatchException(expectedVersion, e);
+            }
+        }
+        String method = joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt > retries) {
+                    throw e;
+                }
+                Counter.builder("todo.task.conflict.retries")
+                        .description("Task writes run again after losing an optimistic lock")
+                        .tag("method", method)
+                        .register(meterRegistry)
+                        .increment();
+                log.debug("{} lost an optimistic lock, retry {} of {}", method, attempt, retries);
+                Thread.sleep(ThreadLocalRandom.current().nextLong((backoff.toMillis() << (attempt - 1)) + 1));
+            }
+        }
+    }
+
+    /**
+     * The {@link RetryOnConflict.IfMatch} argument, null when the write has none or it wasn't sent.
+     */
+    private static Long ifMatch(ProceedingJoinPoint joinPoint) {
+        // The implementation's parameters: the signature may name the interface method
+        Method method = AopUtils.getMostSpecificMethod(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                joinPoint.getTarget().getClass());
+        Annotation[][] annotations = method.getParameterAnnotations();
+        Object[] args = joinPoint.getArgs();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof RetryOnConflict.IfMatch) {
+                    return (Long) args[i];
+                }
+            }
+        }
+        return null;
+    }
+}
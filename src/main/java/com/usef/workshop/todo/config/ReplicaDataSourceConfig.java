@@ -0,0 +1,82 @@
+package com.usef.workshop.todo.config;
+
+import com.usef.workshop.todo.config.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the single spring.datasource pool with a primary pool and one pool per todo.datasource.replicas.urls
+ * entry, routed by {@link ReplicaRoutingDataSource}. Without replica urls the auto-configured pool stays as it is.
+ * Every pool takes the spring.datasource.hikari settings and publishes hikaricp metrics under its own name.
+ *
+ * @author HP
+ **/
+@Configuration
+@ConditionalOnProperty("todo.datasource.replicas.urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                             @Value("${todo.datasource.replicas.urls}") List<String> urls,
+                                                             @Value("${todo.datasource.replicas.username}") String username,
+                                                             @Value("${todo.datasource.replicas.password}") String password,
+                                                             @Value("${todo.datasource.replicas.max-lag}") Duration maxLag,
+                                                             @Value("${todo.datasource.replicas.lag-query}") String lagQuery,
+                                                             MeterRegistry meterRegistry) {
+        HikariDataSource primary = pool(properties, environment, ReplicaRoutingDataSource.PRIMARY, meterRegistry);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource replica = pool(properties, environment, name, meterRegistry);
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLag, lagQuery, meterRegistry);
+    }
+
+    /**
+     * The data source JPA, Flyway and the rest of the application use. Connections are only taken from the router
+     * at the first statement, once the transaction has been marked read-only or not.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource, Environment environment) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        // Set up front, otherwise the proxy reads them from whichever route its first connection happens to take
+        dataSource.setDefaultAutoCommit(Binder.get(environment)
+                .bind("spring.datasource.hikari.auto-commit", Boolean.class)
+                .orElse(true));
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String name,
+                                         MeterRegistry meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -0,0 +1,59 @@
+package com.usef.workshop.todo.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Records how many rows each repository query hands back, as the {@code todo.repository.rows} summary.
+ * Latency per query is already timed by Spring Data as {@code spring.data.repository.invocations}.
+ *
+ * @author HP
+ **/
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* com.usef.workshop.todo.repo.*Repository.*(..))")
+    public Object countRows(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        // Inherited methods such as saveAll are declared on ListCrudRepository, so tag with the repository itself
+        String repository = AopProxyUtils.proxiedUserInterfaces(joinPoint.getTarget())[0].getSimpleName();
+        String method = joinPoint.getSignature().getName();
+
+        if (result instanceof Collection<?> rows) {
+            rows(repository, method).record(rows.size());
+        } else if (result instanceof Optional<?> row) {
+            rows(repository, method).record(row.isPresent() ? 1 : 0);
+        } else if (result instanceof Stream<?> stream) {
+            // Streams are consumed later, so count as rows go by and record once the stream is closed
+            AtomicLong count = new AtomicLong();
+            return stream.peek(row -> count.incrementAndGet())
+                    .onClose(() -> rows(repository, method).record(count.get()));
+        }
+        return result;
+    }
+
+    private DistributionSummary rows(String repository, String method) {
+        return DistributionSummary.builder("todo.repository.rows")
+                .description("Rows returned per repository query")
+                .tag("repository", repository)
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+}
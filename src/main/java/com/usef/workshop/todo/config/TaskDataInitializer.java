@@ -6,6 +6,7 @@ import com.usef.workshop.todo.entity.Category;
 import com.usef.workshop.todo.entity.Task;
 import com.usef.workshop.todo.repo.CategoryRepository;
 import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.service.TaskOwners;
 import com.usef.workshop.todo.service.TaskService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -107,13 +108,14 @@ public class TaskDataInitializer implements CommandLineRunner {
                         .build()
         );
 
-        tasks.forEach(taskDto -> {
+        // Sample tasks belong to the owner of requests without an X-Owner-Id
+        TaskOwners.runAs(TaskOwners.DEFAULT, () -> tasks.forEach(taskDto -> {
                 Task task = taskMapper.mapToEntity(taskDto);
             taskRepository.findByTitle(task.getTitle()).orElseGet(() -> {
                 return taskService.saveTask(task);
             });
 
-        });
+        }));
 
         log.info("Sample tasks inserted");
     }
@@ -0,0 +1,51 @@
+package com.usef.workshop.todo.config;
+
+import com.usef.workshop.todo.config.limit.AdaptiveConcurrencyLimit;
+import com.usef.workshop.todo.config.limit.TaskLimitInterceptor;
+import com.usef.workshop.todo.config.limit.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rate limiting and load shedding in front of the task endpoints, see {@link TaskLimitInterceptor}.
+ * {@code todo.limits.enabled=false} turns both off.
+ *
+ * @author HP
+ **/
+@Configuration
+@ConditionalOnProperty(value = "todo.limits.enabled", havingValue = "true")
+public class TaskLimitConfig implements WebMvcConfigurer {
+
+    private final TaskLimitInterceptor taskLimitInterceptor;
+
+    public TaskLimitConfig(@Value("${todo.limits.rate}") double rate,
+                           @Value("${todo.limits.burst}") int burst,
+                           @Value("${todo.limits.max-buckets}") long maxBuckets,
+                           @Value("${todo.limits.expensive-endpoints}") List<String> expensiveEndpoints,
+                           @Value("${todo.limits.expensive-weight}") int expensiveWeight,
+                           @Value("${todo.limits.trusted-proxies}") List<String> trustedProxies,
+                           @Value("${todo.limits.concurrency.initial}") int initialLimit,
+                           @Value("${todo.limits.concurrency.min}") int minLimit,
+                           @Value("${todo.limits.concurrency.max}") int maxLimit,
+                           @Value("${todo.limits.concurrency.window}") Duration window,
+                           @Value("${todo.limits.concurrency.tolerance}") double tolerance,
+                           MeterRegistry meterRegistry) {
+        this.taskLimitInterceptor = new TaskLimitInterceptor(
+                new TokenBucketRateLimiter(rate, burst, maxBuckets),
+                new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, window, tolerance),
+                Set.copyOf(expensiveEndpoints), expensiveWeight, Set.copyOf(trustedProxies), meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(taskLimitInterceptor).addPathPatterns("/api/v1/tasks", "/api/v1/tasks/**");
+    }
+}
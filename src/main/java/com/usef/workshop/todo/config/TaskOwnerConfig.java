@@ -0,0 +1,43 @@
+package com.usef.workshop.todo.config;
+
+import com.usef.workshop.todo.service.TaskOwners;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hands the current {@link TaskOwners owner} to Hibernate as the tenant of every session it opens. Hibernate then
+ * adds {@code owner_id = ?} to every query on an entity with a @TenantId (Task, TaskTombstone), including the ones
+ * built from Specifications, and sets the owner of the entities it inserts. {@link TaskOwners#ROOT} is the root
+ * tenant, which isn't restricted. Sessions opened on a thread that isn't bound (category setup at startup) get
+ * {@link TaskOwners#NOBODY} and see no task at all.
+ *
+ * @author HP
+ **/
+@Configuration
+public class TaskOwnerConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer taskOwnerTenantResolver() {
+        CurrentTenantIdentifierResolver<String> resolver = new CurrentTenantIdentifierResolver<>() {
+            @Override
+            public String resolveCurrentTenantIdentifier() {
+                return TaskOwners.currentOr(TaskOwners.NOBODY);
+            }
+
+            // Sessions are opened per transaction, always on the thread of the owner they work for
+            @Override
+            public boolean validateExistingCurrentSessions() {
+                return false;
+            }
+
+            @Override
+            public boolean isRoot(String tenantId) {
+                return TaskOwners.isRoot(tenantId);
+            }
+        };
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, resolver);
+    }
+}
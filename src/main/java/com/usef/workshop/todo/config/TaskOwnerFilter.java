@@ -0,0 +1,44 @@
+package com.usef.workshop.todo.config;
+
+import com.usef.workshop.todo.service.TaskOwners;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds each request to the owner named by the {@value #OWNER_HEADER} header, or to {@link TaskOwners#DEFAULT}
+ * without one. The application doesn't authenticate, so the header is expected to be set (and overwritten when a
+ * client sends it) by the gateway that does.
+ *
+ * @author HP
+ **/
+@Component
+public class TaskOwnerFilter extends OncePerRequestFilter {
+
+    public static final String OWNER_HEADER = "X-Owner-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String owner = request.getHeader(OWNER_HEADER);
+        if (owner == null) {
+            owner = TaskOwners.DEFAULT;
+        } else if (!TaskOwners.isValid(owner)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                    OWNER_HEADER + " must be 1 to 64 letters, digits or . _ @ -");
+            return;
+        }
+        // Responses differ per owner, so shared caches have to key them by it
+        response.addHeader(HttpHeaders.VARY, OWNER_HEADER);
+        try (TaskOwners.Binding binding = TaskOwners.bind(owner)) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.usef.workshop.todo.config.datasource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A read replica and what its last health check found. A replica is down until its first check.
+ *
+ * @author HP
+ **/
+final class Replica {
+
+    private final String name;
+    private final DataSource dataSource;
+    private volatile Status status = Status.DOWN;
+
+    Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    String name() {
+        return name;
+    }
+
+    DataSource dataSource() {
+        return dataSource;
+    }
+
+    Status status() {
+        return status;
+    }
+
+    void update(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * @param caughtUpTo every commit on the primary before this instant had been replayed at the check
+     */
+    record Status(boolean healthy, Duration lag, Instant caughtUpTo) {
+
+        static final Status DOWN = new Status(false, null, Instant.MIN);
+
+        boolean hasCaughtUpWith(Instant write) {
+            return write == null || !caughtUpTo.isBefore(write);
+        }
+
+        double lagSeconds() {
+            return lag == null ? Double.NaN : lag.toMillis() / 1000.0;
+        }
+    }
+}
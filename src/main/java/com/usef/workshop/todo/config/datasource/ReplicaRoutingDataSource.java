@@ -0,0 +1,191 @@
+package com.usef.workshop.todo.config.datasource;
+
+import com.usef.workshop.todo.service.TaskOwners;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections of read-only transactions from a read replica and every other connection from the primary.
+ * Replicas take turns (round robin) among the ones whose last health check answered within max-lag of the primary.
+ * <p>
+ * Read-your-writes: the commit time of each owner's last write through this instance is kept, and a replica only
+ * serves that owner's reads once a health check shows it has replayed everything up to that time. Until then the
+ * reads go to the primary, so a client reading right after a change sees it. Threads not bound to an owner count as
+ * TaskOwners.ROOT, whose reads wait for every owner's writes.
+ * <p>
+ * The route is picked when the connection is taken, which has to wait until the transaction is known to be
+ * read-only: wrap this in a LazyConnectionDataSourceProxy. Every connection is counted as
+ * {@code todo.datasource.route{route, reason}}.
+ *
+ * @author HP
+ **/
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    // Commit time of the last write per owner; ROOT holds the last write of any owner
+    private final Map<String, Instant> lastWrites = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    String lagQuery, MeterRegistry meterRegistry) {
+        this.replicas = replicas.entrySet().stream()
+                .map(replica -> new Replica(replica.getKey(), replica.getValue()))
+                .toList();
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+        this.meterRegistry = meterRegistry;
+
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.putAll(replicas);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        initialize();
+
+        for (Replica replica : this.replicas) {
+            Gauge.builder("todo.datasource.replica.lag", replica, r -> r.status().lagSeconds())
+                    .description("Replay lag of the replica at its last health check (NaN while down)")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+            Gauge.builder("todo.datasource.replica.healthy", replica, r -> r.status().healthy() ? 1 : 0)
+                    .description("Whether the replica takes reads (reachable and within max-lag)")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                String owner = TaskOwners.currentOr(TaskOwners.ROOT);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recordWrite(owner);
+                    }
+                });
+            }
+            return route(PRIMARY, "write");
+        }
+        if (replicas.isEmpty()) {
+            return route(PRIMARY, "no-replica");
+        }
+
+        Instant lastWrite = lastWrites.get(TaskOwners.currentOr(TaskOwners.ROOT));
+        int first = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        boolean anyHealthy = false;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((first + i) % replicas.size());
+            Replica.Status status = replica.status();
+            if (status.healthy()) {
+                anyHealthy = true;
+                if (status.hasCaughtUpWith(lastWrite)) {
+                    return route(replica.name(), "read");
+                }
+            }
+        }
+        return route(PRIMARY, anyHealthy ? "read-your-writes" : "no-replica");
+    }
+
+    /**
+     * Measures each replica's lag with the lag query, then forgets the writes every replica that can take reads
+     * has replayed.
+     */
+    @Scheduled(fixedDelayString = "${todo.datasource.replicas.health-check-interval}")
+    public void checkReplicas() {
+        replicas.forEach(this::check);
+
+        // A replica that becomes healthy later is at most max-lag behind, so older writes can't hold it back
+        Instant forgetBefore = Instant.now().minus(maxLag);
+        for (Replica replica : replicas) {
+            Replica.Status status = replica.status();
+            if (status.healthy() && status.caughtUpTo().isBefore(forgetBefore)) {
+                forgetBefore = status.caughtUpTo();
+            }
+        }
+        Instant before = forgetBefore;
+        lastWrites.values().removeIf(write -> write.isBefore(before));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        getResolvedDataSources().values().forEach(dataSource -> {
+            if (dataSource instanceof AutoCloseable pool) {
+                try {
+                    pool.close();
+                } catch (Exception e) {
+                    log.warn("Could not close data source {}", dataSource, e);
+                }
+            }
+        });
+    }
+
+    void recordWrite(String owner) {
+        Instant now = Instant.now();
+        lastWrites.merge(owner, now, (previous, write) -> write.isAfter(previous) ? write : previous);
+        if (!TaskOwners.isRoot(owner)) {
+            lastWrites.merge(TaskOwners.ROOT, now, (previous, write) -> write.isAfter(previous) ? write : previous);
+        }
+    }
+
+    private void check(Replica replica) {
+        Instant checkedAt = Instant.now();
+        try (Connection connection = replica.dataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(lagQuery)) {
+            if (!result.next()) {
+                throw new SQLException("Lag query returned no row");
+            }
+            Duration lag = Duration.ofMillis(Math.max(0, Math.round(result.getDouble(1) * 1000)));
+            boolean healthy = lag.compareTo(maxLag) <= 0;
+            if (healthy != replica.status().healthy()) {
+                log.info("Replica {} {} reads (lag {})", replica.name(), healthy ? "takes" : "no longer takes", lag);
+            }
+            replica.update(new Replica.Status(healthy, lag, checkedAt.minus(lag)));
+        } catch (SQLException e) {
+            if (replica.status().healthy()) {
+                log.warn("Replica {} is down, its reads go to the other replicas or the primary", replica.name(), e);
+            }
+            replica.update(Replica.Status.DOWN);
+        }
+    }
+
+    private String route(String route, String reason) {
+        Counter.builder("todo.datasource.route")
+                .description("Connections handed out per data source and reason")
+                .tag("route", route)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return route;
+    }
+}
@@ -0,0 +1,113 @@
+package com.usef.workshop.todo.config.limit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A limit on the (weighted) requests in flight that follows latency. Every window the average latency per unit of
+ * weight is compared with its long-run average: when it rose past tolerance times that, requests are queueing
+ * somewhere (usually for database connections), so the limit shrinks in proportion, by at most half per window.
+ * Otherwise it grows by its square root, but only while the window used at least half of it.
+ * <p>
+ * Admission and release are a compare-and-set on the in-flight count plus two LongAdders for the latency samples;
+ * the lock is only tried by the request that finds the window over, and only that one adjusts the limit.
+ *
+ * @author HP
+ **/
+public class AdaptiveConcurrencyLimit {
+
+    // Weight of a window in the long-run latency average (about the last 20 windows)
+    private static final double BASELINE_WEIGHT = 0.05;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final ReentrantLock adjusting = new ReentrantLock();
+    private volatile int limit;
+    private volatile long windowStart = System.nanoTime();
+    private double baselineNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration window, double tolerance) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit || tolerance < 1) {
+            throw new IllegalArgumentException("Concurrency limits need 1 <= min <= initial <= max and tolerance >= 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = window.toNanos();
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Admits a request of this weight if it fits under the limit. A request heavier than the whole limit is
+     * admitted when nothing else is in flight, so it can't be refused forever.
+     */
+    public boolean tryAcquire(int weight) {
+        while (true) {
+            int current = inFlight.get();
+            if (current > 0 && current + weight > limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + weight)) {
+                peakInFlight.accumulateAndGet(current + weight, Math::max);
+                return true;
+            }
+        }
+    }
+
+    public void release(int weight, long elapsedNanos) {
+        inFlight.addAndGet(-weight);
+        samples.increment();
+        latencyNanos.add(elapsedNanos / weight);
+        long now = System.nanoTime();
+        if (now - windowStart >= windowNanos && adjusting.tryLock()) {
+            try {
+                if (now - windowStart >= windowNanos) {
+                    adjust(now);
+                }
+            } finally {
+                adjusting.unlock();
+            }
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void adjust(long now) {
+        windowStart = now;
+        long count = samples.sumThenReset();
+        long total = latencyNanos.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (count == 0) {
+            return;
+        }
+        double latency = (double) total / count;
+        baselineNanos = baselineNanos == 0 ? latency : baselineNanos * (1 - BASELINE_WEIGHT) + latency * BASELINE_WEIGHT;
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1, tolerance * baselineNanos / latency));
+        double next;
+        if (gradient < 1) {
+            next = limit * gradient;
+        } else if (peak * 2 >= limit) {
+            next = limit + Math.sqrt(limit);
+        } else {
+            next = limit;
+        }
+        limit = (int) Math.max(minLimit, Math.min(maxLimit, Math.round(next)));
+    }
+}
@@ -0,0 +1,119 @@
+package com.usef.workshop.todo.config.limit;
+
+import com.usef.workshop.todo.config.TaskOwnerFilter;
+import com.usef.workshop.todo.exception.RateLimitExceededException;
+import com.usef.workshop.todo.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits a request to a task endpoint only if the client's token bucket for that endpoint has the tokens (else 429)
+ * and it fits under the adaptive concurrency limit (else 503). Endpoints are the TaskController methods; the ones
+ * that read every task of the owner weigh more, taking more tokens and more of the concurrency limit.
+ * <p>
+ * The client is the remote address. X-Owner-Id is client supplied, so a client rotating it would get a fresh bucket
+ * per request; it is only taken as the client for requests from a trusted proxy (the gateway that sets it), which
+ * would otherwise put all of its users in one bucket. Streamed
+ * responses (exports, SSE) count against the concurrency limit until their handler returns, not until the stream
+ * ends. Rejections are counted as {@code todo.limits.rejected{reason=rate|concurrency, endpoint}}.
+ *
+ * @author HP
+ **/
+public class TaskLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMISSION = TaskLimitInterceptor.class.getName() + ".admission";
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Set<String> expensiveEndpoints;
+    private final int expensiveWeight;
+    private final Set<String> trustedProxies;
+    private final MeterRegistry meterRegistry;
+
+    public TaskLimitInterceptor(TokenBucketRateLimiter rateLimiter, AdaptiveConcurrencyLimit concurrencyLimit,
+                                Set<String> expensiveEndpoints, int expensiveWeight, Set<String> trustedProxies,
+                                MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimit = concurrencyLimit;
+        this.expensiveEndpoints = expensiveEndpoints;
+        this.expensiveWeight = expensiveWeight;
+        this.trustedProxies = trustedProxies;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("todo.limits.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::limit)
+                .description("Weighted requests allowed in flight at once")
+                .register(meterRegistry);
+        Gauge.builder("todo.limits.concurrency.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::inFlight)
+                .description("Weighted requests in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The dispatch that completes an async request was admitted with the request
+        if (!(handler instanceof HandlerMethod method) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String endpoint = method.getMethod().getName();
+        int weight = expensiveEndpoints.contains(endpoint) ? expensiveWeight : 1;
+
+        long wait = rateLimiter.tryAcquire(client(request), endpoint, weight);
+        if (wait > 0) {
+            rejected("rate", endpoint);
+            throw new RateLimitExceededException(endpoint, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999)));
+        }
+        if (!concurrencyLimit.tryAcquire(weight)) {
+            rejected("concurrency", endpoint);
+            throw new ServiceOverloadedException();
+        }
+        request.setAttribute(ADMISSION, new Admission(weight, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(ADMISSION) instanceof Admission admission) {
+            request.removeAttribute(ADMISSION);
+            concurrencyLimit.release(admission.weight(), System.nanoTime() - admission.startNanos());
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        String owner = request.getHeader(TaskOwnerFilter.OWNER_HEADER);
+        if (owner != null && trustedProxies.contains(address)) {
+            return "owner:" + owner;
+        }
+        return "address:" + address;
+    }
+
+    private void rejected(String reason, String endpoint) {
+        Counter.builder("todo.limits.rejected")
+                .description("Task requests turned away by the rate or concurrency limit")
+                .tag("reason", reason)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private record Admission(int weight, long startNanos) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.usef.workshop.todo.config.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One token bucket per client and endpoint, refilled at rate tokens per second up to burst. A request takes as
+ * many tokens as its endpoint weighs.
+ * <p>
+ * Each bucket is a single AtomicLong, updated by compare-and-set without locks: rather than a token count it holds
+ * the time the bucket will be full again (GCRA, which admits exactly what a token bucket does). Taking n tokens
+ * pushes that time n token intervals further; a request is refused when it would be more than burst intervals
+ * ahead of now. A bucket left alone long enough to refill is the same as a new one, so idle buckets are dropped,
+ * and at most max-buckets are kept.
+ *
+ * @author HP
+ **/
+public class TokenBucketRateLimiter {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int burst;
+    private final Cache<Key, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(double rate, int burst, long maxBuckets) {
+        if (rate <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.nanosPerToken = Math.round(TimeUnit.SECONDS.toNanos(1) / rate);
+        this.burstNanos = nanosPerToken * burst;
+        this.burst = burst;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(Math.max(burstNanos, TimeUnit.SECONDS.toNanos(1))))
+                .maximumSize(maxBuckets)
+                .build();
+    }
+
+    /**
+     * Takes {@code tokens} from the client's bucket for the endpoint.
+     *
+     * @return 0 when taken, otherwise the nanoseconds until the bucket will hold enough of them
+     */
+    public long tryAcquire(String client, String endpoint, int tokens) {
+        if (tokens > burst) {
+            throw new IllegalArgumentException("A request can't take more than the " + burst + " tokens of a full bucket");
+        }
+        AtomicLong fullAt = buckets.get(new Key(client, endpoint), key -> new AtomicLong(System.nanoTime()));
+        long cost = nanosPerToken * tokens;
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long next = (current - now > 0 ? current : now) + cost;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private record Key(String client, String endpoint) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.usef.workshop.todo.controller.dto;
+
+import lombok.Builder;
+
+/**
+ * Outcome of one element of a bulk request, {@code index} being its position in the request body.
+ *
+ * @author HP
+ **/
+@Builder
+public record BulkItemResultDTO(
+        int index,
+        String uuid,
+        int status,
+        String error,
+        TaskDTO task
+) {
+}
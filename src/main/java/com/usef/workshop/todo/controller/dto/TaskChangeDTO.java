@@ -0,0 +1,17 @@
+package com.usef.workshop.todo.controller.dto;
+
+import lombok.Builder;
+
+/**
+ * One entry of the change feed. {@code task} is the task after the change, null for a deletion.
+ *
+ * @author HP
+ **/
+@Builder
+public record TaskChangeDTO(
+        long version,
+        String type,
+        String uuid,
+        TaskDTO task
+) {
+}
@@ -0,0 +1,31 @@
+package com.usef.workshop.todo.controller.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A task list laid out by column: the i-th element of every list belongs to the i-th task, so each field name
+ * appears once per response instead of once per task.
+ *
+ * @author HP
+ **/
+@Builder
+public record TaskColumnsDTO(
+        int count,
+        List<String> uuid,
+        List<String> title,
+        List<String> description,
+        List<String> priority,
+        List<String> categoryName,
+        List<Boolean> completed,
+        List<String> status,
+        List<LocalDate> dueDate,
+        List<LocalDateTime> reminderDateTime,
+        List<LocalDateTime> createdAt,
+        List<LocalDateTime> updatedAt,
+        List<Long> version
+) {
+}
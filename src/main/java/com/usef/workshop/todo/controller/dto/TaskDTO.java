@@ -1,15 +1,17 @@
 package com.usef.workshop.todo.controller.dto;
 
+import com.usef.workshop.todo.entity.Task;
 import lombok.Builder;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * @author HP
  **/
 
-@Builder
+@Builder(toBuilder = true)
 public record TaskDTO(
         String uuid,
         String title,
@@ -20,6 +22,19 @@ public record TaskDTO(
         String status,
         LocalDate dueDate,
         LocalDateTime reminderDateTime,
-        LocalDateTime createdAt
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long version
 ) {
+
+    /**
+     * Used by the {@code select new} projections in TaskRepository, which read columns straight into the DTO.
+     */
+    public TaskDTO(UUID uuid, String title, String description, Task.Priority priority, String categoryName,
+                   Boolean completed, Task.Status status, LocalDate dueDate, LocalDateTime reminderDateTime,
+                   LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this(uuid != null ? uuid.toString() : null, title, description,
+                priority != null ? priority.name() : null, categoryName, completed,
+                status != null ? status.name() : null, dueDate, reminderDateTime, createdAt, updatedAt, version);
+    }
 }
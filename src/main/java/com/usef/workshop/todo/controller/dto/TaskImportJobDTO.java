@@ -0,0 +1,25 @@
+package com.usef.workshop.todo.controller.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of an import job. {@code processed} counts the rows read so far, each of which is either
+ * {@code created} or {@code failed}; the failed ones are listed by GET /api/v1/tasks/import/{id}/errors.
+ *
+ * @author HP
+ **/
+@Builder
+public record TaskImportJobDTO(
+        String id,
+        String format,
+        String status,
+        long processed,
+        long created,
+        long failed,
+        LocalDateTime submittedAt,
+        LocalDateTime finishedAt,
+        String error
+) {
+}
@@ -0,0 +1,20 @@
+package com.usef.workshop.todo.controller.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * One keyset page of tasks; pass {@code nextCursor} back for the next one (null on the last page).
+ * {@code truncated} means a keyword query matched more tasks than the search engine admits as a filter
+ * ({@code TaskSearchEngine.MAX_FILTER_MATCHES}), so only the best ranked of them are paged through.
+ *
+ * @author HP
+ **/
+@Builder
+public record TaskPageDTO(
+        List<TaskDTO> items,
+        String nextCursor,
+        boolean truncated
+) {
+}
@@ -0,0 +1,29 @@
+package com.usef.workshop.todo.controller.dto;
+
+import lombok.Builder;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Query parameters of {@code GET /api/v1/tasks/query}. Repeated parameters (priority, status, category)
+ * match any of their values; different parameters must all match.
+ * Each {@code sort} is {@code field[,asc|desc]} among createdAt, dueDate, reminderDateTime, title, priority, status.
+ *
+ * @author HP
+ **/
+@Builder
+public record TaskQueryDTO(
+        List<String> priority,
+        List<String> status,
+        List<String> category,
+        Boolean completed,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+        String keyword,
+        List<String> sort,
+        String cursor,
+        Integer size
+) {
+}
@@ -0,0 +1,23 @@
+package com.usef.workshop.todo.controller.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Dashboard counters. Overdue tasks are the open (not completed) ones due before today.
+ *
+ * @author HP
+ **/
+@Builder
+public record TaskStatsDTO(
+        long total,
+        long completed,
+        long overdue,
+        Map<String, Long> byStatus,
+        Map<String, Long> byPriority,
+        Map<String, Long> byCategory,
+        LocalDateTime reconciledAt
+) {
+}
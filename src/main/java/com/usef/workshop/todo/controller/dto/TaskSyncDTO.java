@@ -0,0 +1,20 @@
+package com.usef.workshop.todo.controller.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Tasks created or updated since the request token and uuids of the tasks deleted since then.
+ * Pass {@code nextToken} to the next sync; {@code hasMore} means it should follow right away.
+ *
+ * @author HP
+ **/
+@Builder
+public record TaskSyncDTO(
+        List<TaskDTO> changed,
+        List<String> deleted,
+        String nextToken,
+        boolean hasMore
+) {
+}
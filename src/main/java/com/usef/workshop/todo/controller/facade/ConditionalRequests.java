@@ -0,0 +1,93 @@
+package com.usef.workshop.todo.controller.facade;
+
+import com.usef.workshop.todo.exception.InvalidTaskException;
+import com.usef.workshop.todo.repo.TaskVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * ETag and Last-Modified validators for task resources. They come from a {@link TaskVersion}, read before the
+ * resource itself, so a conditional GET that isn't modified is answered without loading or serializing tasks.
+ * <p>
+ * Collection ETags are weak: Tomcat doesn't compress a response with a strong ETag, since the compressed bytes
+ * differ from the ones it names. A task's ETag stays strong, for If-Match; a single task is below
+ * server.compression.min-response-size anyway.
+ *
+ * @author HP
+ **/
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String collectionEtag(TaskVersion version) {
+        long lastModified = version.updatedAt() == null
+                ? 0
+                : ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), version.updatedAt());
+        return "W/\"" + version.version() + "-" + lastModified + "\"";
+    }
+
+    static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * If-None-Match (weak comparison) when present, otherwise If-Modified-Since at the second precision of HTTP dates.
+     */
+    static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String opaqueTag = opaqueTag(etag);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return lastModified >= 0 && ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag, long lastModified) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).lastModified(lastModified).build();
+    }
+
+    /**
+     * The task version an If-Match header requires, or null when there is none (absent or {@code *}).
+     * Weak tags never match for If-Match, so only a single strong task ETag is accepted.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        try {
+            if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                throw new NumberFormatException(tag);
+            }
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidTaskException("If-Match must be a single task ETag: " + ifMatch);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.usef.workshop.todo.controller.facade;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.usef.workshop.todo.exception.IdempotencyKeyInUseException;
+import com.usef.workshop.todo.exception.IdempotencyKeyMismatchException;
+import com.usef.workshop.todo.exception.InvalidTaskException;
+import com.usef.workshop.todo.service.TaskOwners;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for creates. The response to the first request with a key is kept for ttl, and a request
+ * repeating the key (a client retrying after a timeout) gets that response again, marked Idempotent-Replayed,
+ * instead of inserting again. Keys are per owner.
+ * <p>
+ * A key reused with a different body is refused (422), as is a repeat arriving while the first request is still
+ * running (409). Only responses are kept, not failures, so a request that failed can be retried with the same key.
+ * Keys live in this instance's memory: a retry that reaches another instance isn't recognized.
+ *
+ * @author HP
+ **/
+@Component
+public class IdempotentRequests {
+
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    static final String CACHE_NAME = "idempotentResponses";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<Key, Entry> responses;
+
+    public IdempotentRequests(@Value("${todo.idempotency.ttl}") Duration ttl,
+                              @Value("${todo.idempotency.max-size}") long maxSize,
+                              MeterRegistry meterRegistry) {
+        responses = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+    }
+
+    /**
+     * Runs {@code action} unless {@code key} was already used with an equal {@code request}, in which case the
+     * response it got is returned again. Without a key the action just runs.
+     */
+    public <T> ResponseEntity<T> execute(String key, Object request, Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidTaskException(IDEMPOTENCY_KEY + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Key owned = new Key(TaskOwners.current(), key);
+        Entry entry = new Entry(request);
+        Entry first = responses.asMap().putIfAbsent(owned, entry);
+        if (first != null) {
+            return replay(key, first, request);
+        }
+        try {
+            ResponseEntity<T> response = action.get();
+            entry.response = response;
+            return response;
+        } catch (RuntimeException e) {
+            responses.asMap().remove(owned, entry);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseEntity<T> replay(String key, Entry first, Object request) {
+        if (!first.request.equals(request)) {
+            throw new IdempotencyKeyMismatchException(key);
+        }
+        ResponseEntity<T> response = (ResponseEntity<T>) first.response;
+        if (response == null) {
+            throw new IdempotencyKeyInUseException(key);
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(IDEMPOTENT_REPLAYED, "true")
+                .body(response.getBody());
+    }
+
+    private record Key(String owner, String key) {
+    }
+
+    private static final class Entry {
+
+        private final Object request;
+        // Null until the first request has its response
+        private volatile ResponseEntity<?> response;
+
+        private Entry(Object request) {
+            this.request = request;
+        }
+    }
+}
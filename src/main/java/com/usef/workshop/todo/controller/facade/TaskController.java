@@ -1,15 +1,41 @@
 package com.usef.workshop.todo.controller.facade;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.usef.workshop.todo.controller.dto.BulkItemResultDTO;
+import com.usef.workshop.todo.controller.dto.TaskColumnsDTO;
 import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.dto.TaskImportJobDTO;
+import com.usef.workshop.todo.controller.dto.TaskPageDTO;
+import com.usef.workshop.todo.controller.dto.TaskQueryDTO;
+import com.usef.workshop.todo.controller.dto.TaskStatsDTO;
+import com.usef.workshop.todo.controller.dto.TaskSyncDTO;
 import com.usef.workshop.todo.controller.mapper.TaskMapper;
 import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.repo.TaskVersion;
+import com.usef.workshop.todo.service.TaskCompletionService;
+import com.usef.workshop.todo.service.TaskOwners;
 import com.usef.workshop.todo.service.TaskService;
+import com.usef.workshop.todo.service.TaskStatsService;
+import com.usef.workshop.todo.service.TaskSyncService;
+import com.usef.workshop.todo.service.TaskTransferService;
+import com.usef.workshop.todo.service.event.TaskChangeFeed;
+import com.usef.workshop.todo.service.transfer.TaskFileFormat;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * @author HP
@@ -20,50 +46,203 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TaskController {
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+    static final String APPLICATION_COLUMNS_JSON_VALUE = "application/vnd.todo.columns+json";
+    static final String TEXT_CSV_VALUE = "text/csv";
+
     private final TaskService taskService;
+    private final TaskStatsService taskStatsService;
+    private final TaskChangeFeed taskChangeFeed;
+    private final TaskSyncService taskSyncService;
+    private final TaskTransferService taskTransferService;
+    private final TaskCompletionService taskCompletionService;
     private final TaskMapper taskMapper;
+    private final IdempotentRequests idempotentRequests;
 
+    /**
+     * Also served as CBOR or Smile (see MessageConverterConfig) when the Accept header asks for it.
+     */
     @GetMapping
-    public ResponseEntity<List<TaskDTO>> getAllTasks() {
-        List<Task> tasks = taskService.findAllOrderedByCreatedAt();
+    public ResponseEntity<List<TaskDTO>> getAllTasks(HttpServletRequest request) {
+        return withCollectionValidators(request, taskService::findAllOrderedByCreatedAt);
+    }
+
+
+    @GetMapping(produces = APPLICATION_COLUMNS_JSON_VALUE)
+    public ResponseEntity<TaskColumnsDTO> getAllTaskColumns(HttpServletRequest request) {
+        return withCollectionValidators(request, () -> taskMapper.mapToColumns(taskService.findAllOrderedByCreatedAt()));
+    }
+
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTasks() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(asOwner(out -> taskTransferService.export(TaskFileFormat.NDJSON, out)));
+    }
+
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(defaultValue = "csv") String format) {
+        TaskFileFormat fileFormat = TaskFileFormat.fromExtension(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fileFormat.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("tasks." + fileFormat.extension())
+                        .build()
+                        .toString())
+                .body(asOwner(out -> taskTransferService.export(fileFormat, out)));
+    }
+
+
+    /**
+     * Answers 202 once the file is received; poll the Location for progress.
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV_VALUE, APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<TaskImportJobDTO> importTasks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                        InputStream body) throws IOException {
+        TaskImportJobDTO job = taskTransferService.startImport(TaskFileFormat.fromMediaType(contentType), body);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.id()).toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+
+    @GetMapping("/import/{id}")
+    public ResponseEntity<TaskImportJobDTO> getImportJob(@PathVariable String id) {
+        return ResponseEntity.ok(taskTransferService.findImportJob(id));
+    }
+
+
+    @GetMapping(value = "/import/{id}/errors", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getImportErrors(@PathVariable String id) {
+        taskTransferService.findImportJob(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(asOwner(out -> taskTransferService.writeImportErrors(id, out)));
+    }
+
+
+    @GetMapping("/page")
+    public ResponseEntity<TaskPageDTO> getTasksPage(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(taskService.findPageOrderedByCreatedAt(cursor, size));
+    }
+
+
+    @GetMapping("/query")
+    public ResponseEntity<TaskPageDTO> queryTasks(TaskQueryDTO query) {
+        return ResponseEntity.ok(taskService.findByQuery(query));
+    }
+
+
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStatsDTO> getTaskStats() {
+        return ResponseEntity.ok(taskStatsService.getStats());
+    }
+
 
-        return ResponseEntity.ok(tasks.stream().map(taskMapper::mapToDTO).collect(Collectors.toList()));
+    @GetMapping("/sync")
+    public ResponseEntity<TaskSyncDTO> syncTasks(@RequestParam(required = false) String since,
+                                                 @RequestParam(defaultValue = "500") int size) {
+        return ResponseEntity.ok(taskSyncService.sync(since, size));
+    }
+
+
+    /**
+     * Resumes after the {@code Last-Event-ID} an EventSource sends when reconnecting, or after {@code since}.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                    @RequestParam(required = false) Long since) {
+        return taskChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
     }
 
 
     @GetMapping("/{uuid}")
-    public ResponseEntity<TaskDTO> getTaskByUuid(@PathVariable String uuid) {
-        Task task = taskService.findByUuid(uuid);
-        return ResponseEntity.ok(taskMapper.mapToDTO(task));
+    public ResponseEntity<TaskDTO> getTaskByUuid(@PathVariable String uuid, HttpServletRequest request) {
+        TaskVersion version = taskService.findVersionByUuid(uuid);
+        String etag = ConditionalRequests.etag(version.version());
+        long lastModified = ConditionalRequests.lastModified(version.updatedAt());
+        if (ConditionalRequests.isNotModified(request, etag, lastModified)) {
+            return ConditionalRequests.notModified(etag, lastModified);
+        }
+        return withValidators(taskService.findByUuid(uuid));
     }
 
 
     @GetMapping("/search")
-    public ResponseEntity<List<TaskDTO>> searchTasks(@RequestParam String keyword) {
-        List<Task> results = taskService.searchByKeyword(keyword);
-        return ResponseEntity.ok(results.stream().map(taskMapper::mapToDTO).collect(Collectors.toList()));
+    public ResponseEntity<List<TaskDTO>> searchTasks(@RequestParam String keyword,
+                                                     @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(taskService.searchByKeyword(keyword, limit));
     }
 
 
     @GetMapping("/category/{name}")
     public ResponseEntity<List<TaskDTO>> getTasksByCategory(@PathVariable String name) {
-        List<Task> tasks = taskService.findByCategory(name);
-        return ResponseEntity.ok(tasks.stream().map(taskMapper::mapToDTO).collect(Collectors.toList()));
+        return ResponseEntity.ok(taskService.findByCategory(name));
     }
 
 
+    /**
+     * A retry sent with the same Idempotency-Key gets the first response again instead of creating a second task.
+     */
     @PostMapping
-    public ResponseEntity<TaskDTO> createTask(@RequestBody TaskDTO taskDTO) {
-        Task task = taskMapper.mapToEntity(taskDTO);
-        return ResponseEntity.status(201).body(taskMapper.mapToDTO(taskService.saveTask(task)));
+    public ResponseEntity<TaskDTO> createTask(@RequestBody TaskDTO taskDTO,
+                                              @RequestHeader(value = IdempotentRequests.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotentRequests.execute(idempotencyKey, taskDTO, () -> {
+            Task task = taskMapper.mapToEntity(taskDTO);
+            Task saved = taskService.saveTask(task);
+            return ResponseEntity.status(201).eTag(ConditionalRequests.etag(saved.getVersion())).body(taskMapper.mapToDTO(saved));
+        });
     }
 
 
     @PutMapping
-    public ResponseEntity<TaskDTO> updateTask(@RequestBody TaskDTO taskDTO) {
+    public ResponseEntity<TaskDTO> updateTask(@RequestBody TaskDTO taskDTO,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Task task = taskMapper.mapToEntity(taskDTO);
-        Task updated = taskService.updateByUuid(task);
-        return ResponseEntity.ok(taskMapper.mapToDTO(updated));
+        Task updated = taskService.updateByUuid(task, ConditionalRequests.expectedVersion(ifMatch));
+        return withValidators(updated);
+    }
+
+
+    @PatchMapping(value = "/{uuid}", consumes = {APPLICATION_MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<TaskDTO> patchTask(@PathVariable String uuid, @RequestBody JsonNode patch,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Task patched = taskService.patchByUuid(uuid, patch, ConditionalRequests.expectedVersion(ifMatch));
+        return withValidators(patched);
+    }
+
+
+    /**
+     * Fast path for the completion checkbox: answers 202 once the toggle is logged, the task changes with the
+     * next flush of the write-behind buffer.
+     */
+    @PostMapping("/{uuid}/complete")
+    public ResponseEntity<Void> completeTask(@PathVariable String uuid,
+                                             @RequestParam(defaultValue = "true") boolean completed) {
+        taskCompletionService.complete(uuid, completed);
+        return ResponseEntity.accepted().build();
+    }
+
+
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkItemResultDTO>> createTasks(@RequestBody List<TaskDTO> taskDTOs,
+                                                               @RequestHeader(value = IdempotentRequests.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return idempotentRequests.execute(idempotencyKey, taskDTOs, () -> ResponseEntity.ok(taskService.saveAll(taskDTOs)));
+    }
+
+
+    @PutMapping("/bulk")
+    public ResponseEntity<List<BulkItemResultDTO>> updateTasks(@RequestBody List<TaskDTO> taskDTOs) {
+        return ResponseEntity.ok(taskService.updateAll(taskDTOs));
+    }
+
+
+    @DeleteMapping("/bulk")
+    public ResponseEntity<List<BulkItemResultDTO>> deleteTasks(@RequestBody List<String> uuids) {
+        return ResponseEntity.ok(taskService.deleteAllByUuid(uuids));
     }
 
 
@@ -73,4 +252,33 @@ public class TaskController {
         return ResponseEntity.noContent().build();
     }
 
+
+    // Streaming bodies are written on another thread, which has to work for the request's owner too
+    private static StreamingResponseBody asOwner(StreamingResponseBody body) {
+        String owner = TaskOwners.current();
+        return out -> TaskOwners.runAs(owner, () -> body.writeTo(out));
+    }
+
+    private <T> ResponseEntity<T> withCollectionValidators(HttpServletRequest request, Supplier<T> body) {
+        // Read before the list: a change in between leaves an older ETag, which only costs the next request a 200
+        TaskVersion version = taskService.findCollectionVersion();
+        String etag = ConditionalRequests.collectionEtag(version);
+        long lastModified = ConditionalRequests.lastModified(version.updatedAt());
+        if (ConditionalRequests.isNotModified(request, etag, lastModified)) {
+            return ConditionalRequests.notModified(etag, lastModified);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body.get());
+    }
+
+    private ResponseEntity<TaskDTO> withValidators(Task task) {
+        return ResponseEntity.ok()
+                .eTag(ConditionalRequests.etag(task.getVersion()))
+                .lastModified(ConditionalRequests.lastModified(task.getUpdatedAt()))
+                .body(taskMapper.mapToDTO(task));
+    }
+
 }
@@ -1,9 +1,20 @@
 package com.usef.workshop.todo.controller.facade;
 
 import com.usef.workshop.todo.exception.CategoryNotFoundException;
+import com.usef.workshop.todo.exception.IdempotencyKeyInUseException;
+import com.usef.workshop.todo.exception.IdempotencyKeyMismatchException;
+import com.usef.workshop.todo.exception.ImportJobNotFoundException;
 import com.usef.workshop.todo.exception.InvalidTaskException;
+import com.usef.workshop.todo.exception.RateLimitExceededException;
+import com.usef.workshop.todo.exception.ServiceOverloadedException;
+import com.usef.workshop.todo.exception.SyncTokenExpiredException;
 import com.usef.workshop.todo.exception.TaskAlreadyExist;
+import com.usef.workshop.todo.exception.TaskConflictException;
 import com.usef.workshop.todo.exception.TaskNotFoundException;
+import com.usef.workshop.todo.exception.TaskVersionMismatchException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -25,11 +36,63 @@ public class TaskExceptionHandler {
         return buildResponse(ex.getMessage(), ex, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleImportJobNotFound(ImportJobNotFoundException ex) {
+        return buildResponse(ex.getMessage(), ex, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(InvalidTaskException.class)
     public ResponseEntity<ApiErrorResponse> handleInvalidTask(InvalidTaskException ex) {
         return buildResponse(ex.getMessage(), ex, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<ApiErrorResponse> handleSyncTokenExpired(SyncTokenExpiredException ex) {
+        return buildResponse(ex.getMessage(), ex, HttpStatus.GONE);
+    }
+
+    @ExceptionHandler(TaskVersionMismatchException.class)
+    public ResponseEntity<ApiErrorResponse> handleVersionMismatch(TaskVersionMismatchException ex) {
+        return buildResponse(ex.getMessage(), ex, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    // Another update committed between this one's read and its flush, on every retry (ConflictRetryAspect)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return buildResponse("Task was modified concurrently, reload it and retry", ex, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(TaskConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handleTaskConflict(TaskConflictException ex) {
+        return buildResponse(ex.getMessage(), ex, HttpStatus.CONFLICT);
+    }
+
+    // A unique constraint caught what the service didn't check first, e.g. two creates with one title racing
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiErrorResponse> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        return buildResponse("Task conflicts with an existing task (titles are unique)", ex, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInUseException.class)
+    public ResponseEntity<ApiErrorResponse> handleIdempotencyKeyInUse(IdempotencyKeyInUseException ex) {
+        return buildResponse(ex.getMessage(), ex, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ApiErrorResponse> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException ex) {
+        return buildResponse(ex.getMessage(), ex, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiErrorResponse> handleRateLimitExceeded(RateLimitExceededException ex) {
+        return retryAfter(buildResponse(ex.getMessage(), ex, HttpStatus.TOO_MANY_REQUESTS), ex.getRetryAfterSeconds());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiErrorResponse> handleServiceOverloaded(ServiceOverloadedException ex) {
+        return retryAfter(buildResponse(ex.getMessage(), ex, HttpStatus.SERVICE_UNAVAILABLE), 1);
+    }
+
 //    @ExceptionHandler(Exception.class)
 //    public ResponseEntity<ApiErrorResponse> handleOther(Exception ex) {
 //        return buildResponse("Erreur interne du serveur", ex, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -50,6 +113,14 @@ public class TaskExceptionHandler {
 
 
 
+    private static ResponseEntity<ApiErrorResponse> retryAfter(ResponseEntity<ApiErrorResponse> response, long seconds) {
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(response.getBody());
+    }
+
+
+
     record ApiErrorResponse (
              String message,
              String error,
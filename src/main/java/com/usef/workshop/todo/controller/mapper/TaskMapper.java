@@ -1,13 +1,21 @@
 package com.usef.workshop.todo.controller.mapper;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.usef.workshop.todo.controller.dto.TaskColumnsDTO;
 import com.usef.workshop.todo.controller.dto.TaskDTO;
 import com.usef.workshop.todo.entity.Category;
 import com.usef.workshop.todo.entity.Task;
-import com.usef.workshop.todo.exception.CategoryNotFoundException;
-import com.usef.workshop.todo.repo.CategoryRepository;
+import com.usef.workshop.todo.exception.InvalidTaskException;
+import com.usef.workshop.todo.service.CategoryService;
 import org.springframework.stereotype.Controller;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * @author HP
@@ -16,10 +24,10 @@ import java.util.UUID;
 @Controller
 public class TaskMapper {
 
-    private final CategoryRepository categoryRepository;
+    private final CategoryService categoryService;
 
-    public TaskMapper(CategoryRepository categoryRepository) {
-        this.categoryRepository = categoryRepository;
+    public TaskMapper(CategoryService categoryService) {
+        this.categoryService = categoryService;
     }
 
     public TaskDTO mapToDTO(Task task) {
@@ -34,6 +42,26 @@ public class TaskMapper {
                 .dueDate(task.getDueDate())
                 .reminderDateTime(task.getReminderDateTime())
                 .createdAt(task.getCreatedAt())
+                .updatedAt(task.getUpdatedAt())
+                .version(task.getVersion())
+                .build();
+    }
+
+    public TaskColumnsDTO mapToColumns(List<TaskDTO> tasks) {
+        return TaskColumnsDTO.builder()
+                .count(tasks.size())
+                .uuid(column(tasks, TaskDTO::uuid))
+                .title(column(tasks, TaskDTO::title))
+                .description(column(tasks, TaskDTO::description))
+                .priority(column(tasks, TaskDTO::priority))
+                .categoryName(column(tasks, TaskDTO::categoryName))
+                .completed(column(tasks, TaskDTO::completed))
+                .status(column(tasks, TaskDTO::status))
+                .dueDate(column(tasks, TaskDTO::dueDate))
+                .reminderDateTime(column(tasks, TaskDTO::reminderDateTime))
+                .createdAt(column(tasks, TaskDTO::createdAt))
+                .updatedAt(column(tasks, TaskDTO::updatedAt))
+                .version(column(tasks, TaskDTO::version))
                 .build();
     }
 
@@ -43,8 +71,7 @@ public class TaskMapper {
         Category category = null;
 
         if(dto.categoryName() != null){
-             category = categoryRepository.findByName(dto.categoryName())
-                    .orElseThrow(()-> new CategoryNotFoundException(dto.categoryName()));
+             category = categoryService.findByName(dto.categoryName());
         }
 
         Task task = new Task();
@@ -68,4 +95,93 @@ public class TaskMapper {
         return task;
     }
 
+    /**
+     * Copies the non-null mutable fields of {@code source} onto {@code target}, field by field.
+     * Replaces the BeanWrapper based copy so the PUT path does no reflection.
+     */
+    public void copyNonNullFields(Task source, Task target) {
+        if (source.getTitle() != null) target.setTitle(source.getTitle());
+        if (source.getDescription() != null) target.setDescription(source.getDescription());
+        if (source.getPriority() != null) target.setPriority(source.getPriority());
+        if (source.getCategory() != null) target.setCategory(source.getCategory());
+        if (source.getCompleted() != null) target.setCompleted(source.getCompleted());
+        if (source.getDueDate() != null) target.setDueDate(source.getDueDate());
+        if (source.getReminderDateTime() != null) target.setReminderDateTime(source.getReminderDateTime());
+        if (source.getStatus() != null) target.setStatus(source.getStatus());
+    }
+
+    /**
+     * Applies a JSON Merge Patch (RFC 7396) to {@code target}: absent members are left alone,
+     * {@code null} clears an optional field, anything else replaces it.
+     */
+    public void applyMergePatch(JsonNode patch, Task target) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidTaskException("Merge patch must be a JSON object");
+        }
+        for (Map.Entry<String, JsonNode> field : patch.properties()) {
+            JsonNode value = field.getValue();
+            switch (field.getKey()) {
+                case "title" -> target.setTitle(requiredText(field.getKey(), value));
+                case "description" -> target.setDescription(optionalText(field.getKey(), value));
+                case "priority" -> target.setPriority(parseEnum(Task.Priority.class, field.getKey(), requiredText(field.getKey(), value)));
+                case "status" -> target.setStatus(parseEnum(Task.Status.class, field.getKey(), requiredText(field.getKey(), value)));
+                case "categoryName" -> target.setCategory(categoryService.findByName(requiredText(field.getKey(), value)));
+                case "completed" -> {
+                    if (!value.isBoolean()) {
+                        throw new InvalidTaskException("Field completed must be a boolean");
+                    }
+                    target.setCompleted(value.booleanValue());
+                }
+                case "dueDate" -> {
+                    String text = optionalText(field.getKey(), value);
+                    target.setDueDate(text == null ? null : parseTemporal(field.getKey(), text, LocalDate::parse));
+                }
+                case "reminderDateTime" -> {
+                    String text = optionalText(field.getKey(), value);
+                    target.setReminderDateTime(text == null ? null : parseTemporal(field.getKey(), text, LocalDateTime::parse));
+                }
+                case "uuid", "createdAt", "updatedAt", "version" -> throw new InvalidTaskException("Field " + field.getKey() + " is read-only");
+                default -> throw new InvalidTaskException("Unknown field " + field.getKey());
+            }
+        }
+    }
+
+    private static <T> List<T> column(List<TaskDTO> tasks, Function<TaskDTO, T> field) {
+        return tasks.stream().map(field).toList();
+    }
+
+    private static String requiredText(String name, JsonNode value) {
+        String text = optionalText(name, value);
+        if (text == null) {
+            throw new InvalidTaskException("Field " + name + " cannot be removed");
+        }
+        return text;
+    }
+
+    private static String optionalText(String name, JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new InvalidTaskException("Field " + name + " must be a string");
+        }
+        return value.textValue();
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String text) {
+        try {
+            return Enum.valueOf(type, text);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTaskException("Invalid value for " + name + ": " + text);
+        }
+    }
+
+    private static <T> T parseTemporal(String name, String text, Function<String, T> parser) {
+        try {
+            return parser.apply(text);
+        } catch (DateTimeParseException e) {
+            throw new InvalidTaskException("Invalid value for " + name + ": " + text);
+        }
+    }
+
 }
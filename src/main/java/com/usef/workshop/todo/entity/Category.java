@@ -3,6 +3,8 @@ package com.usef.workshop.todo.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * @author HP
@@ -14,10 +16,11 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categories")
 public class Category {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cat_seq_gen")
-    @SequenceGenerator(name = "cat_seq_gen", sequenceName = "cat_seq", allocationSize = 1)
+    @SequenceGenerator(name = "cat_seq_gen", sequenceName = "cat_seq", allocationSize = 10)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -2,6 +2,9 @@ package com.usef.workshop.todo.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.TenantId;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -14,19 +17,44 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
-@Table(name = "tasks")
+@DynamicUpdate
+@Table(name = "tasks", uniqueConstraints = {
+        @UniqueConstraint(name = "tasks_owner_id_uuid_key", columnNames = {"owner_id", "uuid"}),
+        @UniqueConstraint(name = "tasks_owner_id_title_key", columnNames = {"owner_id", "title"})
+}, indexes = {
+        // Mirrors V8__PartitionTasksByOwner.sql for schemas generated by Hibernate (tests)
+        @Index(name = "idx_tasks_owner_category_created_at", columnList = "owner_id, category_id, created_at"),
+        @Index(name = "idx_tasks_owner_status_due_date", columnList = "owner_id, status, due_date"),
+        @Index(name = "idx_tasks_owner_due_date", columnList = "owner_id, due_date"),
+        @Index(name = "idx_tasks_owner_created_at_uuid", columnList = "owner_id, created_at, uuid"),
+        @Index(name = "idx_tasks_owner_updated_at_uuid", columnList = "owner_id, updated_at, uuid"),
+        @Index(name = "idx_tasks_owner_completed", columnList = "owner_id, completed"),
+        // Mirrors V10__AddTaskSortRanks.sql
+        @Index(name = "idx_tasks_owner_priority_rank_uuid", columnList = "owner_id, priority_rank, uuid"),
+        @Index(name = "idx_tasks_owner_status_rank_uuid", columnList = "owner_id, status_rank, uuid"),
+        // The reminder scheduler reads every owner's reminders
+        @Index(name = "idx_tasks_reminder_date_time", columnList = "reminder_date_time")
+})
 @NoArgsConstructor
+@AllArgsConstructor
 @Builder
 public class Task {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE , generator = "task_seq_gen")
-    @SequenceGenerator(name = "task_seq_gen", sequenceName = "task_seq", allocationSize = 1)
+    @SequenceGenerator(name = "task_seq_gen", sequenceName = "task_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true, updatable = false)
-    private UUID uuid = UUID.randomUUID();
+    // Set by Hibernate from the current owner on insert, and added to every task query (TaskOwnerConfig)
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    private String ownerId;
 
-    @Column(nullable = false,unique = true)
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private UUID uuid = UuidV7.generate();
+
+    // Unique per owner (tasks_owner_id_title_key)
+    @Column(nullable = false)
     private String title;
 
     @Column(length = 1000)
@@ -41,6 +69,7 @@ public class Task {
     private Category category;
 
     @Column
+    @Builder.Default
     private Boolean completed = false;
 
     @Column
@@ -53,23 +82,47 @@ public class Task {
     @Column(nullable = false)
     private Status status;
 
+    // Ordinals of priority and status, kept in step by syncRanks() so sorting by either can use an index
+    @Setter(AccessLevel.NONE)
+    @Column(nullable = false)
+    private Short priorityRank;
+
+    @Setter(AccessLevel.NONE)
+    @Column(nullable = false)
+    private Short statusRank;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    @Column
+    // Sync watermark: set on insert too, so a task is found by GET /sync as soon as it exists
+    @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Incremented on every update (V7__AddTaskVersion.sql), and the task's ETag
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected  void onCreate(){
         this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
         if (this.status == null) {
             this.status = Status.TODO;
         }
+        syncRanks();
     }
 
     @PreUpdate
     protected void onUpdate(){
         this.updatedAt = LocalDateTime.now();
+        syncRanks();
+    }
+
+    private void syncRanks() {
+        this.priorityRank = priority == null ? null : (short) priority.ordinal();
+        this.statusRank = status == null ? null : (short) status.ordinal();
     }
 
     public enum Priority{
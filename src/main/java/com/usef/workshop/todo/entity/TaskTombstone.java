@@ -0,0 +1,73 @@
+package com.usef.workshop.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.TenantId;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Marks a deleted task so delta sync clients can drop it. Compacted after todo.sync.tombstone-retention.
+ * Keyed by owner and uuid, like tasks: uuids are only unique per owner.
+ *
+ * @author HP
+ **/
+@Getter
+@Setter
+@Entity
+@Table(name = "task_tombstones", indexes = {
+        // Mirrors V6__AddTaskSync.sql, V8__PartitionTasksByOwner.sql and V9__KeyTaskTombstonesByOwner.sql
+        // for schemas generated by Hibernate (tests)
+        @Index(name = "idx_task_tombstones_deleted_at", columnList = "deleted_at"),
+        @Index(name = "idx_task_tombstones_owner_deleted_at", columnList = "owner_id, deleted_at")
+})
+@IdClass(TaskTombstone.Key.class)
+@NoArgsConstructor
+public class TaskTombstone implements Persistable<TaskTombstone.Key> {
+
+    @Id
+    @Column(name = "owner_id", nullable = false, updatable = false, length = 64)
+    private String ownerId;
+
+    @Id
+    private UUID uuid;
+
+    // The owner again, for Hibernate's owner filter: a @TenantId can't be part of the id
+    @TenantId
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "owner_id", insertable = false, updatable = false)
+    private String tenantId;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+
+    public TaskTombstone(String ownerId, UUID uuid, LocalDateTime deletedAt) {
+        this.ownerId = ownerId;
+        this.uuid = uuid;
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(ownerId, uuid);
+    }
+
+    // Always inserted, never updated: skips the SELECT save() would run for an assigned id
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String ownerId;
+        private UUID uuid;
+    }
+}
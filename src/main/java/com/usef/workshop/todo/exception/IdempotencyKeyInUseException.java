@@ -0,0 +1,12 @@
+package com.usef.workshop.todo.exception;
+
+/**
+ * A request repeated an Idempotency-Key while the first request with that key was still running.
+ *
+ * @author HP
+ **/
+public class IdempotencyKeyInUseException extends RuntimeException {
+    public IdempotencyKeyInUseException(String key) {
+        super("A request with Idempotency-Key " + key + " is still in progress");
+    }
+}
@@ -0,0 +1,12 @@
+package com.usef.workshop.todo.exception;
+
+/**
+ * An Idempotency-Key was reused with a different request body than the one it was first sent with.
+ *
+ * @author HP
+ **/
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String key) {
+        super("Idempotency-Key " + key + " was already used for a different request");
+    }
+}
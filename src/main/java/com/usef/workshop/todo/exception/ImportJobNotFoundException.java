@@ -0,0 +1,10 @@
+package com.usef.workshop.todo.exception;
+
+/**
+ * @author HP
+ **/
+public class ImportJobNotFoundException extends RuntimeException {
+    public ImportJobNotFoundException(String id) {
+        super("Import job not found: " + id);
+    }
+}
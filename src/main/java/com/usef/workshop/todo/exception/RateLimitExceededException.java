@@ -0,0 +1,19 @@
+package com.usef.workshop.todo.exception;
+
+import lombok.Getter;
+
+/**
+ * The client used up its request budget for the endpoint; it can try again after {@link #getRetryAfterSeconds()}.
+ *
+ * @author HP
+ **/
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String endpoint, long retryAfterSeconds) {
+        super("Too many " + endpoint + " requests, retry in " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,12 @@
+package com.usef.workshop.todo.exception;
+
+/**
+ * Latency says the service is at capacity, so the request was shed before it could add to the queue.
+ *
+ * @author HP
+ **/
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException() {
+        super("The service is overloaded, retry shortly");
+    }
+}
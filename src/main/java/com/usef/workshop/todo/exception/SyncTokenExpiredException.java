@@ -0,0 +1,13 @@
+package com.usef.workshop.todo.exception;
+
+/**
+ * The sync token is older than the tombstone retention, so deletions since then may have been compacted away.
+ * The client has to start over with a full sync.
+ *
+ * @author HP
+ **/
+public class SyncTokenExpiredException extends RuntimeException {
+    public SyncTokenExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.usef.workshop.todo.exception;
+
+import java.util.Collection;
+
+/**
+ * A write without If-Match lost its optimistic lock to a concurrent write that changed the same fields, so running
+ * it again would silently overwrite that change.
+ *
+ * @author HP
+ **/
+public class TaskConflictException extends RuntimeException {
+    public TaskConflictException(String uuid, Collection<String> fields) {
+        super("Task " + uuid + " was modified concurrently in " + String.join(", ", fields) + ", reload it and retry");
+    }
+}
@@ -0,0 +1,17 @@
+package com.usef.workshop.todo.exception;
+
+/**
+ * The If-Match version sent with an update is not the stored one, or stopped being it before the update was
+ * written: the client edited a stale copy.
+ *
+ * @author HP
+ **/
+public class TaskVersionMismatchException extends RuntimeException {
+    public TaskVersionMismatchException(String uuid, long expected, long actual) {
+        super("Task " + uuid + " is at version " + actual + ", not " + expected);
+    }
+
+    public TaskVersionMismatchException(long expected, Throwable cause) {
+        super("Task was modified concurrently and is no longer at version " + expected, cause);
+    }
+}
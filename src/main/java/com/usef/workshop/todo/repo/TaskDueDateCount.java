@@ -0,0 +1,11 @@
+package com.usef.workshop.todo.repo;
+
+import java.time.LocalDate;
+
+/**
+ * Number of open tasks of an owner due on a given day.
+ *
+ * @author HP
+ **/
+public record TaskDueDateCount(String ownerId, LocalDate dueDate, Long count) {
+}
@@ -0,0 +1,11 @@
+package com.usef.workshop.todo.repo;
+
+import com.usef.workshop.todo.entity.Task;
+
+/**
+ * Number of tasks of an owner sharing a category, status, priority and completion flag.
+ *
+ * @author HP
+ **/
+public record TaskGroupCount(String ownerId, String categoryName, Task.Status status, Task.Priority priority, Boolean completed, Long count) {
+}
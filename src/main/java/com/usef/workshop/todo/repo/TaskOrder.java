@@ -0,0 +1,9 @@
+package com.usef.workshop.todo.repo;
+
+/**
+ * One key of a task ordering. Nulls always sort last, whatever the direction.
+ *
+ * @author HP
+ **/
+public record TaskOrder(TaskSortField field, boolean ascending) {
+}
@@ -0,0 +1,11 @@
+package com.usef.workshop.todo.repo;
+
+import java.util.UUID;
+
+/**
+ * The version of an owner's task.
+ *
+ * @author HP
+ **/
+public record TaskOwnedVersion(String ownerId, UUID uuid, Long version) {
+}
@@ -0,0 +1,22 @@
+package com.usef.workshop.todo.repo;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.entity.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Task queries assembled at runtime with the Criteria API.
+ *
+ * @author HP
+ **/
+public interface TaskQueryRepository {
+
+    /**
+     * Returns at most {@code limit} tasks matching {@code filter} in {@code orders} order, as one SQL statement.
+     * {@code orders} must end with a unique key; {@code after} holds the keys of the last task already seen
+     * (see {@link TaskSortField#keyOf}), or null for the first page.
+     */
+    List<TaskDTO> findTaskDTOs(Specification<Task> filter, List<TaskOrder> orders, List<Comparable<?>> after, int limit);
+}
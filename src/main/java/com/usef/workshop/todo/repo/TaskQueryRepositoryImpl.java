@@ -0,0 +1,102 @@
+package com.usef.workshop.todo.repo;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.entity.Category;
+import com.usef.workshop.todo.entity.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NullPrecedence;
+import org.hibernate.query.SortDirection;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaExpression;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author HP
+ **/
+@RequiredArgsConstructor
+public class TaskQueryRepositoryImpl implements TaskQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<TaskDTO> findTaskDTOs(Specification<Task> filter, List<TaskOrder> orders, List<Comparable<?>> after, int limit) {
+        // Hibernate's builder, for NULLS LAST ordering which plain JPA can't express
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDTO> query = cb.createQuery(TaskDTO.class);
+        Root<Task> task = query.from(Task.class);
+        Join<Task, Category> category = task.join("category");
+        query.select(cb.construct(TaskDTO.class,
+                task.get("uuid"), task.get("title"), task.get("description"), task.get("priority"),
+                category.get("name"), task.get("completed"), task.get("status"), task.get("dueDate"),
+                task.get("reminderDateTime"), task.get("createdAt"), task.get("updatedAt"), task.get("version")));
+
+        List<Predicate> where = new ArrayList<>();
+        Predicate filterPredicate = filter == null ? null : filter.toPredicate(task, query, cb);
+        if (filterPredicate != null) {
+            where.add(filterPredicate);
+        }
+        if (after != null) {
+            where.add(after(orders, after, task, cb));
+        }
+        query.where(where.toArray(Predicate[]::new));
+
+        List<Order> orderBy = new ArrayList<>();
+        for (TaskOrder order : orders) {
+            orderBy.add(cb.sort((JpaExpression<?>) order.field().expression(task, cb),
+                    order.ascending() ? SortDirection.ASCENDING : SortDirection.DESCENDING, NullPrecedence.LAST));
+        }
+        query.orderBy(orderBy);
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Rows strictly after {@code keys} in the ordering: k1 beyond, or k1 equal and k2 beyond, and so on.
+     */
+    private static Predicate after(List<TaskOrder> orders, List<Comparable<?>> keys, Root<Task> task, HibernateCriteriaBuilder cb) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalSoFar = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            TaskOrder order = orders.get(i);
+            Expression<? extends Comparable<?>> expression = order.field().expression(task, cb);
+            Comparable<?> key = keys.get(i);
+
+            // Nothing sorts after a null key but other nulls
+            if (key != null) {
+                List<Predicate> alternative = new ArrayList<>(equalSoFar);
+                alternative.add(beyond(order, expression, key, cb));
+                alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            }
+            equalSoFar.add(key == null ? cb.isNull(expression) : cb.equal(expression, key));
+        }
+        Predicate after = cb.or(alternatives.toArray(Predicate[]::new));
+
+        // Redundant bound on the leading key so an index on it can seek to the cursor rather than filter the OR
+        TaskOrder first = orders.get(0);
+        if (!first.field().nullable()) {
+            after = cb.and(bound(first, first.field().expression(task, cb), keys.get(0), cb), after);
+        }
+        return after;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate beyond(TaskOrder order, Expression expression, Comparable key, HibernateCriteriaBuilder cb) {
+        Predicate beyond = order.ascending() ? cb.greaterThan(expression, key) : cb.lessThan(expression, key);
+        return order.field().nullable() ? cb.or(beyond, cb.isNull(expression)) : beyond;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate bound(TaskOrder order, Expression expression, Comparable key, HibernateCriteriaBuilder cb) {
+        return order.ascending() ? cb.greaterThanOrEqualTo(expression, key) : cb.lessThanOrEqualTo(expression, key);
+    }
+}
@@ -0,0 +1,12 @@
+package com.usef.workshop.todo.repo;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * What the reminder scheduler needs to know about a task: who, what and when.
+ *
+ * @author HP
+ **/
+public record TaskReminder(String ownerId, UUID uuid, String title, LocalDateTime reminderDateTime) {
+}
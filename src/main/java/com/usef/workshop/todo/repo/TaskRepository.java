@@ -1,19 +1,62 @@
 package com.usef.workshop.todo.repo;
 
+import com.usef.workshop.todo.controller.dto.TaskDTO;
 import com.usef.workshop.todo.entity.Task;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
+ * Every query is restricted to the current owner by Hibernate (Task.ownerId is a @TenantId), except native ones,
+ * which take the owner as a parameter. Background jobs bind TaskOwners.ROOT to run unrestricted.
+ *
  * @author HP
  **/
-public interface TaskRepository extends JpaRepository<Task,Long> {
+public interface TaskRepository extends JpaRepository<Task,Long>, TaskQueryRepository {
+
+    /**
+     * Builds TaskDTOs in SQL with a single join on categories, without managed entities.
+     */
+    String TASK_DTO_SELECT = """
+            select new com.usef.workshop.todo.controller.dto.TaskDTO(
+                t.uuid, t.title, t.description, t.priority, c.name, t.completed,
+                t.status, t.dueDate, t.reminderDateTime, t.createdAt, t.updatedAt, t.version)
+            from Task t join t.category c
+            """;
+
     Optional<Task> findByUuid(UUID uuid);
 
+    // In a transaction of its own on the primary: read after losing an optimistic lock, when the caller's transaction
+    // can only roll back, to see the write that took the lock
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(TASK_DTO_SELECT + " where t.uuid = :uuid")
+    Optional<TaskDTO> findCommittedTaskDTOByUuid(@Param("uuid") UUID uuid);
+
+    @Query("select new com.usef.workshop.todo.repo.TaskVersion(t.version, t.updatedAt) from Task t where t.uuid = :uuid")
+    Optional<TaskVersion> findVersionByUuid(@Param("uuid") UUID uuid);
+
+    @Query("select t.id from Task t where t.uuid = :uuid")
+    Optional<Long> findIdByUuid(@Param("uuid") UUID uuid);
+
+    @Query("select max(t.updatedAt) from Task t")
+    Optional<LocalDateTime> findLastUpdatedAt();
+
     Optional<Task> findByTitle(String title);
 
     List<Task> findByCategory_Name(String categoryName);
@@ -22,6 +65,100 @@ public interface TaskRepository extends JpaRepository<Task,Long> {
     List<Task> findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String titleKeyword, String descKeyword);
     List<Task> findAllByOrderByCreatedAtAsc();
 
+    @Query("select t from Task t join fetch t.category where t.uuid in :uuids")
+    List<Task> findByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    // 0 when the task has been changed or deleted since it was read at that version
+    @Modifying
+    @Query("delete from Task t where t.id = :id and t.version = :version")
+    int deleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    @Query("select t.title from Task t where t.title in :titles")
+    List<String> findExistingTitles(@Param("titles") Collection<String> titles);
+
+    @Query("select t.uuid from Task t where t.uuid in :uuids")
+    List<UUID> findExistingUuids(@Param("uuids") Collection<UUID> uuids);
+
+    @Query(TASK_DTO_SELECT + "order by t.createdAt asc, t.uuid asc")
+    List<TaskDTO> findAllTaskDTOsOrderedByCreatedAt();
+
+    @Query(TASK_DTO_SELECT + "order by t.createdAt asc, t.uuid asc")
+    List<TaskDTO> findFirstTaskDTOPageOrderedByCreatedAt(Pageable pageable);
+
+    // The leading createdAt >= bound lets the (created_at, uuid) index seek to the cursor instead of filtering
+    @Query(TASK_DTO_SELECT + """
+            where t.createdAt >= :createdAt and (t.createdAt > :createdAt or t.uuid > :uuid)
+            order by t.createdAt asc, t.uuid asc""")
+    List<TaskDTO> findTaskDTOPageOrderedByCreatedAtAfter(@Param("createdAt") LocalDateTime createdAt,
+                                                         @Param("uuid") UUID uuid,
+                                                         Pageable pageable);
+
+    // Same keyset shape on the (updated_at, uuid) index, capped at the sync's upper watermark
+    @Query(TASK_DTO_SELECT + """
+            where t.updatedAt >= :updatedAt and (t.updatedAt > :updatedAt or t.uuid > :uuid)
+              and t.updatedAt <= :until
+            order by t.updatedAt asc, t.uuid asc""")
+    List<TaskDTO> findTaskDTOsUpdatedAfter(@Param("updatedAt") LocalDateTime updatedAt,
+                                           @Param("uuid") UUID uuid,
+                                           @Param("until") LocalDateTime until,
+                                           Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(TASK_DTO_SELECT + "order by t.createdAt asc, t.uuid asc")
+    Stream<TaskDTO> streamAllTaskDTOsOrderedByCreatedAt();
+
+    @Query(TASK_DTO_SELECT + "where t.uuid in :uuids")
+    List<TaskDTO> findTaskDTOsByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    @Query(TASK_DTO_SELECT + "where c.name = :categoryName order by t.createdAt asc, t.uuid asc")
+    List<TaskDTO> findTaskDTOsByCategoryName(@Param("categoryName") String categoryName);
+
+    // Native, so Hibernate doesn't add the owner: the equality also prunes the search to the owner's partition
+    @Query(value = """
+            select t.uuid from tasks t
+            where t.owner_id = :ownerId and t.search_vector @@ to_tsquery('simple', :query)
+            order by ts_rank(t.search_vector, to_tsquery('simple', :query)) desc, t.created_at desc
+            limit :limit""", nativeQuery = true)
+    List<UUID> searchUuidsByTsQuery(@Param("ownerId") String ownerId, @Param("query") String tsQuery,
+                                    @Param("limit") int limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.usef.workshop.todo.repo.TaskSearchDocument(t.ownerId, t.uuid, t.title, t.description) from Task t")
+    Stream<TaskSearchDocument> streamSearchDocuments();
+
+    @Query("""
+            select new com.usef.workshop.todo.repo.TaskGroupCount(
+                t.ownerId, c.name, t.status, t.priority, coalesce(t.completed, false), count(t))
+            from Task t join t.category c
+            group by t.ownerId, c.name, t.status, t.priority, coalesce(t.completed, false)""")
+    List<TaskGroupCount> countByCategoryStatusPriorityAndCompleted();
+
+    @Query("""
+            select new com.usef.workshop.todo.repo.TaskDueDateCount(t.ownerId, t.dueDate, count(t))
+            from Task t
+            where (t.completed = false or t.completed is null) and t.dueDate is not null
+            group by t.ownerId, t.dueDate""")
+    List<TaskDueDateCount> countOpenTasksByDueDate();
+
+    @Query("select new com.usef.workshop.todo.repo.TaskOwnedVersion(t.ownerId, t.uuid, t.version) from Task t where t.uuid in :uuids")
+    List<TaskOwnedVersion> findOwnedVersionsByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    // Range scan on idx_tasks_reminder_date_time, so only the scheduler's next window is read
+    @Query("""
+            select new com.usef.workshop.todo.repo.TaskReminder(t.ownerId, t.uuid, t.title, t.reminderDateTime)
+            from Task t
+            where t.reminderDateTime > :from and t.reminderDateTime <= :to
+              and (t.completed = false or t.completed is null)
+            order by t.reminderDateTime asc""")
+    List<TaskReminder> findOpenRemindersBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                Pageable limit);
+
+    @Query("""
+            select new com.usef.workshop.todo.repo.TaskReminder(t.ownerId, t.uuid, t.title, t.reminderDateTime)
+            from Task t
+            where t.reminderDateTime = :at and (t.completed = false or t.completed is null)""")
+    List<TaskReminder> findOpenRemindersAt(@Param("at") LocalDateTime at);
+
     void deleteByUuid(UUID uuid);
 
 }
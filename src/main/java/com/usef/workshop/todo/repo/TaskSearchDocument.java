@@ -0,0 +1,11 @@
+package com.usef.workshop.todo.repo;
+
+import java.util.UUID;
+
+/**
+ * The text of a task an in-process search index is built from, with the owner whose index it goes to.
+ *
+ * @author HP
+ **/
+public record TaskSearchDocument(String ownerId, UUID uuid, String title, String description) {
+}
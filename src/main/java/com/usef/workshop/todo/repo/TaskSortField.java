@@ -0,0 +1,91 @@
+package com.usef.workshop.todo.repo;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.entity.Task;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Task columns a query can be ordered by, with the value a keyset cursor keeps for each of them.
+ * Priority and status sort by rank (LOW &lt; MEDIUM &lt; HIGH, TODO &lt; IN_PROGRESS &lt; DONE), not alphabetically,
+ * using the rank columns Task stores next to them so the (owner_id, rank, uuid) indexes serve the ordering.
+ *
+ * @author HP
+ **/
+public enum TaskSortField {
+    CREATED_AT("createdAt", false),
+    DUE_DATE("dueDate", true),
+    REMINDER_DATE_TIME("reminderDateTime", true),
+    TITLE("title", false),
+    PRIORITY("priority", false),
+    STATUS("status", false),
+    /**
+     * Unique tiebreaker appended to every ordering; not selectable by clients.
+     */
+    TASK_UUID("uuid", false);
+
+    private final String property;
+    private final boolean nullable;
+
+    TaskSortField(String property, boolean nullable) {
+        this.property = property;
+        this.nullable = nullable;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public boolean nullable() {
+        return nullable;
+    }
+
+    public static Optional<TaskSortField> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field != TASK_UUID && field.property.equals(property))
+                .findFirst();
+    }
+
+    Expression<? extends Comparable<?>> expression(Root<Task> task, CriteriaBuilder cb) {
+        return switch (this) {
+            case PRIORITY -> task.get("priorityRank");
+            case STATUS -> task.get("statusRank");
+            default -> task.get(property);
+        };
+    }
+
+    /**
+     * The value of this field for {@code task}, in the domain of {@link #expression}.
+     */
+    public Comparable<?> keyOf(TaskDTO task) {
+        return switch (this) {
+            case CREATED_AT -> task.createdAt();
+            case DUE_DATE -> task.dueDate();
+            case REMINDER_DATE_TIME -> task.reminderDateTime();
+            case TITLE -> task.title();
+            case PRIORITY -> (short) Task.Priority.valueOf(task.priority()).ordinal();
+            case STATUS -> (short) Task.Status.valueOf(task.status()).ordinal();
+            case TASK_UUID -> UUID.fromString(task.uuid());
+        };
+    }
+
+    /**
+     * Reads back a key written with {@code toString()}.
+     */
+    public Comparable<?> parseKey(String text) {
+        return switch (this) {
+            case CREATED_AT, REMINDER_DATE_TIME -> LocalDateTime.parse(text);
+            case DUE_DATE -> LocalDate.parse(text);
+            case TITLE -> text;
+            case PRIORITY, STATUS -> Short.valueOf(text);
+            case TASK_UUID -> UUID.fromString(text);
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.usef.workshop.todo.repo;
+
+import com.usef.workshop.todo.entity.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Filters for {@link TaskQueryRepository}. Each returns null when it has nothing to restrict,
+ * which {@link Specification#allOf} skips.
+ *
+ * @author HP
+ **/
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> priorityIn(Collection<Task.Priority> priorities) {
+        return isEmpty(priorities) ? null : (task, query, cb) -> task.get("priority").in(priorities);
+    }
+
+    public static Specification<Task> statusIn(Collection<Task.Status> statuses) {
+        return isEmpty(statuses) ? null : (task, query, cb) -> task.get("status").in(statuses);
+    }
+
+    /**
+     * Compares the foreign key, so no join on categories is needed.
+     */
+    public static Specification<Task> categoryIdIn(Collection<Long> categoryIds) {
+        return isEmpty(categoryIds) ? null : (task, query, cb) -> task.get("category").get("id").in(categoryIds);
+    }
+
+    public static Specification<Task> completed(Boolean completed) {
+        if (completed == null) {
+            return null;
+        }
+        // Rows created before the completed column existed hold null and count as not completed
+        return completed
+                ? (task, query, cb) -> cb.isTrue(task.get("completed"))
+                : (task, query, cb) -> cb.or(cb.isFalse(task.get("completed")), cb.isNull(task.get("completed")));
+    }
+
+    /**
+     * Due date within [from, to], either bound optional.
+     */
+    public static Specification<Task> dueBetween(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (task, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(task.get("dueDate"), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(task.get("dueDate"), from);
+            }
+            return cb.between(task.get("dueDate"), from, to);
+        };
+    }
+
+    private static boolean isEmpty(Collection<?> values) {
+        return values == null || values.isEmpty();
+    }
+}
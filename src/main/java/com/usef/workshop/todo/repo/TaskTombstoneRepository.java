@@ -0,0 +1,31 @@
+package com.usef.workshop.todo.repo;
+
+import com.usef.workshop.todo.entity.TaskTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * @author HP
+ **/
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, TaskTombstone.Key> {
+
+    @Query("select t.uuid from TaskTombstone t where t.deletedAt >= :since and t.deletedAt <= :until")
+    List<UUID> findUuidsDeletedBetween(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
+    @Query("select max(t.deletedAt) from TaskTombstone t")
+    Optional<LocalDateTime> findLastDeletedAt();
+
+    // Its own transaction, so the caller can bind the owner before the session is opened
+    @Transactional
+    @Modifying
+    @Query("delete from TaskTombstone t where t.deletedAt < :before")
+    int deleteDeletedBefore(@Param("before") LocalDateTime before);
+}
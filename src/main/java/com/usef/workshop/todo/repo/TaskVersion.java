@@ -0,0 +1,11 @@
+package com.usef.workshop.todo.repo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validators of a task for conditional requests, read without loading the task.
+ *
+ * @author HP
+ **/
+public record TaskVersion(Long version, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,21 @@
+package com.usef.workshop.todo.service;
+
+import com.usef.workshop.todo.entity.Category;
+
+/**
+ * @author HP
+ **/
+public interface CategoryService {
+
+    /**
+     * Resolves a category by name, served from the {@code categoriesByName} cache after the first lookup.
+     */
+    Category findByName(String name);
+
+    /**
+     * Creates the category if it doesn't exist yet and loads it into the cache.
+     */
+    Category ensureExists(String name);
+
+    Category save(Category category);
+}
@@ -0,0 +1,46 @@
+package com.usef.workshop.todo.service;
+
+import com.usef.workshop.todo.entity.Category;
+import com.usef.workshop.todo.exception.CategoryNotFoundException;
+import com.usef.workshop.todo.repo.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * @author HP
+ **/
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class CategoryServiceImpl implements CategoryService {
+
+    public static final String CATEGORIES_BY_NAME = "categoriesByName";
+
+    private final CategoryRepository categoryRepository;
+
+    @Override
+    @Cacheable(cacheNames = CATEGORIES_BY_NAME, key = "#name")
+    public Category findByName(String name) {
+        return categoryRepository.findByName(name)
+                .orElseThrow(() -> new CategoryNotFoundException(name));
+    }
+
+    @Override
+    @CachePut(cacheNames = CATEGORIES_BY_NAME, key = "#name")
+    public Category ensureExists(String name) {
+        return categoryRepository.findByName(name)
+                .orElseGet(() -> categoryRepository.save(new Category(name)));
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CATEGORIES_BY_NAME, allEntries = true)
+    public Category save(Category category) {
+        // A rename leaves the old name behind, so drop every entry rather than one key
+        log.info("Saving category {}, clearing category cache", category.getName());
+        return categoryRepository.save(category);
+    }
+}
@@ -0,0 +1,50 @@
+package com.usef.workshop.todo.service;
+
+import com.usef.workshop.todo.exception.InvalidTaskException;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Codec of the opaque tokens for a (timestamp, uuid) keyset position, shared by {@link TaskCursor} and
+ * {@link TaskSyncToken}: the two fields as bytes, URL-safe Base64 without padding.
+ *
+ * @author HP
+ **/
+final class KeysetTokens {
+
+    private static final int TOKEN_BYTES = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    private KeysetTokens() {
+    }
+
+    static String encode(LocalDateTime timestamp, UUID uuid) {
+        ByteBuffer buffer = ByteBuffer.allocate(TOKEN_BYTES)
+                .putLong(timestamp.toEpochSecond(ZoneOffset.UTC))
+                .putInt(timestamp.getNano())
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @param name what the token is, for the error message
+     */
+    static <T> T decode(String token, String name, BiFunction<LocalDateTime, UUID, T> position) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() != TOKEN_BYTES) {
+                throw new InvalidTaskException("Invalid " + name + ": " + token);
+            }
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            return position.apply(timestamp, new UUID(buffer.getLong(), buffer.getLong()));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidTaskException("Invalid " + name + ": " + token);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.usef.workshop.todo.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a task write that can run again when a concurrent update made its optimistic lock fail, without losing
+ * that update: the write doesn't depend on what it read (a delete), skips what changed since (the completion
+ * flush), or only sets fields the concurrent update left alone, which the write checks before letting the conflict
+ * through. ConflictRetryAspect retries it in a new transaction, up to todo.tasks.conflict-retries times. A run
+ * guarded by If-Match ({@link IfMatch} argument set) isn't retried: its conflict is a 412.
+ *
+ * @author HP
+ **/
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    /**
+     * The expected version (If-Match) a run is checked against, null when the client didn't send one.
+     */
+    @Documented
+    @Target(ElementType.PARAMETER)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface IfMatch {
+    }
+}
@@ -0,0 +1,19 @@
+package com.usef.workshop.todo.service;
+
+/**
+ * @author HP
+ **/
+public interface TaskCompletionService {
+
+    /**
+     * Records that the task should be (un)completed. The toggle is durable when this returns and reaches the
+     * database with the next flush; toggles of the same task before then are merged into the last one. A write of
+     * the task that commits before the flush wins over the toggle.
+     */
+    void complete(String uuidString, boolean completed);
+
+    /**
+     * Writes the pending toggles to the database.
+     */
+    void flush();
+}
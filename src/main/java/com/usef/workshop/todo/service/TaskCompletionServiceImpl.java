@@ -0,0 +1,191 @@
+package com.usef.workshop.todo.service;
+
+import com.usef.workshop.todo.exception.InvalidTaskException;
+import com.usef.workshop.todo.exception.TaskNotFoundException;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.service.completion.CompletionKey;
+import com.usef.workshop.todo.service.completion.CompletionLog;
+import com.usef.workshop.todo.service.completion.PendingCompletion;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for completion toggles. A toggle is appended to the CompletionLog and kept in a map keyed by
+ * task, so the clicks on a task between two flushes cost one write in the end. Every
+ * {@code todo.completions.flush-interval} the map is swapped for an empty one and written by
+ * {@link TaskService#applyCompletions}, one transaction per owner run as that owner; the log segment is only
+ * dropped once they committed. Reads see a toggle after that flush.
+ * <p>
+ * A toggle carries the task version read when it was accepted, and the flush skips a task written since: the PUT,
+ * PATCH or bulk update that came after the toggle wins.
+ *
+ * @author HP
+ **/
+@Slf4j
+@Service
+public class TaskCompletionServiceImpl implements TaskCompletionService {
+
+    private final TaskService taskService;
+    private final TaskRepository taskRepository;
+    private final CompletionLog completionLog;
+    private final Counter toggles;
+    private final Counter merged;
+
+    // Toggles take the read side, so they run concurrently; the swap at the start of a flush takes the write side
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile Map<CompletionKey, PendingCompletion> pending = new ConcurrentHashMap<>();
+
+    public TaskCompletionServiceImpl(TaskService taskService,
+                                     TaskRepository taskRepository,
+                                     @Value("${todo.completions.wal-dir}") Path walDirectory,
+                                     @Value("${todo.completions.fsync}") boolean fsync,
+                                     MeterRegistry meterRegistry) throws IOException {
+        this.taskService = taskService;
+        this.taskRepository = taskRepository;
+        this.completionLog = new CompletionLog(walDirectory, fsync);
+        pending.putAll(completionLog.recovered());
+        this.toggles = Counter.builder("todo.completions.toggles")
+                .description("Completion toggles accepted")
+                .register(meterRegistry);
+        this.merged = Counter.builder("todo.completions.merged")
+                .description("Completion toggles merged into a pending toggle of the same task")
+                .register(meterRegistry);
+        Gauge.builder("todo.completions.pending", this, service -> service.pending.size())
+                .description("Tasks with a completion toggle waiting for the next flush")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void complete(String uuidString, boolean completed) {
+        UUID uuid = parseUuid(uuidString);
+        String owner = TaskOwners.current();
+        Long version = taskRepository.findVersionByUuid(uuid)
+                .orElseThrow(() -> new TaskNotFoundException(uuidString))
+                .version();
+        PendingCompletion completion = new PendingCompletion(completed, version);
+        swapLock.readLock().lock();
+        try {
+            // compute holds the task's entry, so the log and the map see its toggles in the same order
+            pending.compute(new CompletionKey(owner, uuid), (key, previous) -> {
+                completionLog.append(key, completion);
+                if (previous != null) {
+                    merged.increment();
+                }
+                return completion;
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        toggles.increment();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${todo.completions.flush-interval}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<CompletionKey, PendingCompletion> batch;
+            long sealed;
+            swapLock.writeLock().lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                sealed = completionLog.rotate();
+                batch = pending;
+                pending = new ConcurrentHashMap<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            Map<String, Map<UUID, PendingCompletion>> byOwner = new HashMap<>();
+            batch.forEach((key, completion) -> byOwner.computeIfAbsent(key.owner(), owner -> new HashMap<>())
+                    .put(key.uuid(), completion));
+            byOwner.forEach((owner, completions) -> {
+                try {
+                    int changed = TaskOwners.callAs(owner, () -> taskService.applyCompletions(completions));
+                    log.debug("Flushed {} completion toggles of {}, {} tasks changed", completions.size(), owner, changed);
+                } catch (RuntimeException e) {
+                    log.warn("Completion flush of {} failed, retrying with the next one: {}", owner, e.getMessage());
+                    requeue(owner, completions);
+                }
+            });
+            completionLog.deleteThrough(sealed);
+        } catch (IOException e) {
+            // The sealed segment stays and is replayed on the next start
+            log.warn("Completion log rotation failed: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * The flush's own writes move the version that the toggles accepted while it ran were read at; those toggles
+     * follow it, as the flush skips a toggle whose version is behind the task.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!flushLock.isHeldByCurrentThread() || event.after() == null || event.after().version() == null) {
+            return;
+        }
+        long version = event.after().version();
+        swapLock.readLock().lock();
+        try {
+            pending.computeIfPresent(new CompletionKey(event.owner(), event.uuid()), (key, completion) -> {
+                if (completion.version() == null || completion.version() != version - 1) {
+                    return completion;
+                }
+                PendingCompletion rebased = new PendingCompletion(completion.completed(), version);
+                completionLog.append(key, rebased);
+                return rebased;
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        completionLog.close();
+    }
+
+    // A toggle made since the failed flush is newer and wins; the others go to the current segment again
+    private void requeue(String owner, Map<UUID, PendingCompletion> completions) {
+        swapLock.readLock().lock();
+        try {
+            completions.forEach((uuid, completion) -> pending.computeIfAbsent(new CompletionKey(owner, uuid), key -> {
+                completionLog.append(key, completion);
+                return completion;
+            }));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static UUID parseUuid(String uuidString) {
+        try {
+            return UUID.fromString(uuidString);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTaskException("Invalid UUID format: " + uuidString);
+        }
+    }
+}
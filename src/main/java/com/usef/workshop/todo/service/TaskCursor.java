@@ -0,0 +1,21 @@
+package com.usef.workshop.todo.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Keyset position in the (createdAt, uuid) ordering of tasks.
+ * The uuid is the unique tiebreaker so the token never exposes internal ids.
+ *
+ * @author HP
+ **/
+public record TaskCursor(LocalDateTime createdAt, UUID uuid) {
+
+    public String encode() {
+        return KeysetTokens.encode(createdAt, uuid);
+    }
+
+    public static TaskCursor decode(String token) {
+        return KeysetTokens.decode(token, "cursor", TaskCursor::new);
+    }
+}
@@ -0,0 +1,67 @@
+package com.usef.workshop.todo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Bounded (owner, uuid) to id map, so a task seen recently is loaded by primary key (from the persistence context when it
+ * is already there) instead of through the uuid index. Uuids never change and ids are never reused, so an entry
+ * can only go stale by the task being deleted; deletions evict it, and callers check the uuid of what they load.
+ * Entries are kept per owner: uuids are only unique within an owner, and a hit must not let one owner reach
+ * another's task. {@code todo.tasks.id-cache.max-size=0} turns it off.
+ *
+ * @author HP
+ **/
+@Component
+public class TaskIdCache {
+
+    static final String CACHE_NAME = "taskIdsByUuid";
+
+    private final Cache<Key, Long> ids;
+
+    public TaskIdCache(@Value("${todo.tasks.id-cache.max-size}") long maxSize, MeterRegistry meterRegistry) {
+        if (maxSize > 0) {
+            ids = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+            CaffeineCacheMetrics.monitor(meterRegistry, ids, CACHE_NAME);
+        } else {
+            ids = null;
+        }
+    }
+
+    /**
+     * The id of the owner's task with this uuid, or null when it isn't cached.
+     */
+    public Long get(String owner, UUID uuid) {
+        return ids == null ? null : ids.getIfPresent(new Key(owner, uuid));
+    }
+
+    public void put(String owner, UUID uuid, Long id) {
+        if (ids != null && id != null) {
+            ids.put(new Key(owner, uuid), id);
+        }
+    }
+
+    public void evict(String owner, UUID uuid) {
+        if (ids != null) {
+            ids.invalidate(new Key(owner, uuid));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.type() == TaskChangedEvent.Type.DELETED) {
+            evict(event.owner(), event.uuid());
+        }
+    }
+
+    private record Key(String owner, UUID uuid) {
+    }
+}
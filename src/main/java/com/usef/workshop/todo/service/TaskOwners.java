@@ -0,0 +1,108 @@
+package com.usef.workshop.todo.service;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The owner the current thread works for. Every task belongs to one owner and Hibernate restricts every task query
+ * to the current owner (Task.ownerId is the @TenantId), so a service only ever sees the tasks of the caller.
+ * <p>
+ * Requests are bound by TaskOwnerFilter. Background work that covers every owner (reconciliation, reminders,
+ * compaction, the search index rebuild) binds {@link #ROOT}, which Hibernate doesn't restrict, explicitly with
+ * {@link #runAs}. A thread that isn't bound gets nothing: {@link #current} throws and Hibernate sessions it opens
+ * work as {@link #NOBODY}, which owns no task. Work handed to another thread on behalf of a request (streamed
+ * responses, imports) takes the owner along with {@link #runAs}.
+ *
+ * @author HP
+ **/
+public final class TaskOwners {
+
+    /**
+     * Owner of requests that don't name one, and of every task that existed before tasks had owners.
+     */
+    public static final String DEFAULT = "default";
+
+    /**
+     * Unrestricted access for background work; never stored as the owner of a task.
+     */
+    public static final String ROOT = "*";
+
+    /**
+     * Tenant of Hibernate sessions opened on a thread that isn't bound. Not a {@link #isValid valid} owner id, so
+     * no task has it and their queries come back empty.
+     */
+    public static final String NOBODY = "!";
+
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9._@-]{1,64}");
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TaskOwners() {
+    }
+
+    /**
+     * @throws IllegalStateException when the current thread isn't bound to an owner
+     */
+    public static String current() {
+        String owner = CURRENT.get();
+        if (owner == null) {
+            throw new IllegalStateException("No task owner is bound to " + Thread.currentThread().getName());
+        }
+        return owner;
+    }
+
+    /**
+     * The current owner, or {@code fallback} when the thread isn't bound.
+     */
+    public static String currentOr(String fallback) {
+        String owner = CURRENT.get();
+        return owner != null ? owner : fallback;
+    }
+
+    public static boolean isRoot(String owner) {
+        return ROOT.equals(owner);
+    }
+
+    /**
+     * Owner ids are at most 64 letters, digits or {@code . _ @ -}, so they can go in file names and log lines as is.
+     */
+    public static boolean isValid(String owner) {
+        return owner != null && VALID.matcher(owner).matches();
+    }
+
+    /**
+     * Binds the current thread to {@code owner} until the binding is closed, which restores the previous owner.
+     */
+    public static Binding bind(String owner) {
+        String previous = CURRENT.get();
+        CURRENT.set(owner);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public static <E extends Exception> void runAs(String owner, OwnedAction<E> action) throws E {
+        try (Binding binding = bind(owner)) {
+            action.run();
+        }
+    }
+
+    public static <T> T callAs(String owner, Supplier<T> action) {
+        try (Binding binding = bind(owner)) {
+            return action.get();
+        }
+    }
+
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    @FunctionalInterface
+    public interface OwnedAction<E extends Exception> {
+        void run() throws E;
+    }
+}
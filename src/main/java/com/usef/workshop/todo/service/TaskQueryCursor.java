@@ -0,0 +1,66 @@
+package com.usef.workshop.todo.service;
+
+import com.usef.workshop.todo.exception.InvalidTaskException;
+import com.usef.workshop.todo.repo.TaskOrder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset position in an arbitrary task ordering: one key per {@link TaskOrder}, uuid last.
+ * The token also carries the ordering, so a cursor can't be replayed against a different sort.
+ *
+ * @author HP
+ **/
+public record TaskQueryCursor(List<Comparable<?>> keys) {
+
+    public String encode(List<TaskOrder> orders) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(signature(orders));
+            for (Comparable<?> key : keys) {
+                out.writeBoolean(key != null);
+                if (key != null) {
+                    out.writeUTF(key.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static TaskQueryCursor decode(String token, List<TaskOrder> orders) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (!in.readUTF().equals(signature(orders))) {
+                throw new InvalidTaskException("Cursor does not match the requested sort");
+            }
+            List<Comparable<?>> keys = new ArrayList<>(orders.size());
+            for (TaskOrder order : orders) {
+                keys.add(in.readBoolean() ? order.field().parseKey(in.readUTF()) : null);
+            }
+            if (in.available() > 0) {
+                throw new InvalidTaskException("Invalid cursor: " + token);
+            }
+            return new TaskQueryCursor(Collections.unmodifiableList(keys));
+        } catch (IOException | IllegalArgumentException | DateTimeException e) {
+            throw new InvalidTaskException("Invalid cursor: " + token);
+        }
+    }
+
+    private static String signature(List<TaskOrder> orders) {
+        return orders.stream()
+                .map(order -> order.field().property() + (order.ascending() ? "+" : "-"))
+                .collect(Collectors.joining(","));
+    }
+}
@@ -1,12 +1,21 @@
 package com.usef.workshop.todo.service;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.usef.workshop.todo.controller.dto.BulkItemResultDTO;
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.dto.TaskPageDTO;
+import com.usef.workshop.todo.controller.dto.TaskQueryDTO;
 import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.repo.TaskVersion;
+import com.usef.workshop.todo.service.completion.PendingCompletion;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * @author HP
@@ -14,20 +23,87 @@ import java.util.UUID;
 
 public interface TaskService {
 
-    List<Task> findAllOrderedByCreatedAt();
+    List<TaskDTO> findAllOrderedByCreatedAt();
+
+    /**
+     * Returns at most {@code size} tasks following the position encoded in {@code cursor}
+     * (the first page when {@code cursor} is null), ordered by creation date.
+     */
+    TaskPageDTO findPageOrderedByCreatedAt(String cursor, int size);
+
+    /**
+     * Returns one keyset page of the tasks matching every filter of {@code query}, in its sort order,
+     * fetched with a single SQL statement. The page is {@code truncated} when the keyword filter left out
+     * lower ranked matches.
+     */
+    TaskPageDTO findByQuery(TaskQueryDTO query);
+
+    /**
+     * Pushes every task to {@code consumer} in creation order without materializing the whole table.
+     */
+    void streamAllOrderedByCreatedAt(Consumer<TaskDTO> consumer);
 
     Task findByTitle(String title);
 
-    List<Task> searchByKeyword(String keyword);
+    List<TaskDTO> searchByKeyword(String keyword);
+
+    /**
+     * Returns at most {@code limit} tasks whose title or description contain words starting with
+     * the terms of {@code keyword}, best match first.
+     */
+    List<TaskDTO> searchByKeyword(String keyword, int limit);
 
     Task findByUuid(String uuidString);
 
+    /**
+     * Version and last update of a task, for conditional requests, without loading it.
+     */
+    TaskVersion findVersionByUuid(String uuidString);
+
+    /**
+     * Version of the whole task collection: changes whenever a task is created, updated or deleted.
+     */
+    TaskVersion findCollectionVersion();
+
     void deleteByUuid(String uuidString);
 
-    Task updateByUuid(Task taskDTO);
+    /**
+     * Copies the non-null fields onto the stored task. A non-null {@code expectedVersion} must be the stored version.
+     */
+    Task updateByUuid(Task taskDTO, Long expectedVersion);
+
+    /**
+     * Applies a JSON Merge Patch to the task; only the columns it changes are written.
+     * A non-null {@code expectedVersion} must be the stored version.
+     */
+    Task patchByUuid(String uuidString, JsonNode patch, Long expectedVersion);
 
     Task saveTask(Task taskDTO);
 
+    /**
+     * Creates every valid task in one transaction using JDBC batching and reports a result per element.
+     */
+    List<BulkItemResultDTO> saveAll(List<TaskDTO> tasks);
+
+    /**
+     * Applies the non-null fields of each task to the stored task with the same uuid.
+     * All uuids are resolved with a single query. A task whose version isn't the stored one, or whose new title is
+     * taken, fails with a 409 of its own.
+     */
+    List<BulkItemResultDTO> updateAll(List<TaskDTO> tasks);
+
+    /**
+     * Deletes each task at the version it was loaded at; one changed in the meantime fails with a 409 of its own.
+     */
+    List<BulkItemResultDTO> deleteAllByUuid(List<String> uuids);
+
+    /**
+     * Sets {@code completed} on every task of the map, loading 1000 tasks at a time and flushing them as batched
+     * versioned UPDATEs, and returns how many changed. Tasks already in that state, deleted tasks and tasks whose
+     * version moved past the one the toggle was accepted against are skipped.
+     */
+    int applyCompletions(Map<UUID, PendingCompletion> completions);
+
 
-    List<Task> findByCategory(String categoryName);
+    List<TaskDTO> findByCategory(String categoryName);
 }
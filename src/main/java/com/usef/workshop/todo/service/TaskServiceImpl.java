@@ -1,26 +1,58 @@
 package com.usef.workshop.todo.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.usef.workshop.todo.controller.dto.BulkItemResultDTO;
 import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.dto.TaskPageDTO;
+import com.usef.workshop.todo.controller.dto.TaskQueryDTO;
 import com.usef.workshop.todo.entity.Category;
 import com.usef.workshop.todo.entity.Task;
 import com.usef.workshop.todo.exception.CategoryNotFoundException;
 import com.usef.workshop.todo.exception.InvalidTaskException;
+import com.usef.workshop.todo.exception.TaskConflictException;
 import com.usef.workshop.todo.exception.TaskNotFoundException;
+import com.usef.workshop.todo.exception.TaskVersionMismatchException;
 import com.usef.workshop.todo.controller.mapper.TaskMapper;
 import com.usef.workshop.todo.repo.CategoryRepository;
+import com.usef.workshop.todo.repo.TaskOrder;
 import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.repo.TaskSortField;
+import com.usef.workshop.todo.repo.TaskSpecifications;
+import com.usef.workshop.todo.repo.TaskTombstoneRepository;
+import com.usef.workshop.todo.repo.TaskVersion;
+import com.usef.workshop.todo.service.completion.PendingCompletion;
+import com.usef.workshop.todo.service.event.TaskChangeFeed;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import com.usef.workshop.todo.service.search.TaskSearchEngine;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.beans.PropertyDescriptor;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author HP
@@ -28,74 +60,551 @@ import java.util.UUID;
 @Slf4j
 @RequiredArgsConstructor
 @Service
+@Timed(value = "todo.task.service", description = "Time spent in TaskService methods")
 public class TaskServiceImpl implements TaskService {
 
+    static final int MAX_PAGE_SIZE = 500;
+    static final int DEFAULT_SEARCH_LIMIT = 50;
+    static final int MAX_BULK_SIZE = 1000;
+    static final int DEFAULT_QUERY_PAGE_SIZE = 50;
+
     private final TaskRepository taskRepository;
     private final CategoryRepository categoryRepository;
     private final TaskMapper taskMapper;
+    private final TaskSearchEngine taskSearchEngine;
+    private final CategoryService categoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskTombstoneRepository tombstoneRepository;
+    private final TaskChangeFeed taskChangeFeed;
+    private final TaskIdCache taskIdCache;
 
 
    @Override
-    public List<Task> findAllOrderedByCreatedAt() {
-        return taskRepository.findAllByOrderByCreatedAtAsc();
+   @Transactional(readOnly = true)
+    public List<TaskDTO> findAllOrderedByCreatedAt() {
+        return taskRepository.findAllTaskDTOsOrderedByCreatedAt();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskPageDTO findPageOrderedByCreatedAt(String cursor, int size) {
+        checkPageSize(size);
+        // Fetch one extra row to know whether another page follows without a count query
+        PageRequest limit = PageRequest.ofSize(size + 1);
+        List<TaskDTO> tasks;
+        if (cursor == null || cursor.isBlank()) {
+            tasks = taskRepository.findFirstTaskDTOPageOrderedByCreatedAt(limit);
+        } else {
+            TaskCursor after = TaskCursor.decode(cursor);
+            tasks = taskRepository.findTaskDTOPageOrderedByCreatedAtAfter(after.createdAt(), after.uuid(), limit);
+        }
+
+        boolean hasNext = tasks.size() > size;
+        List<TaskDTO> page = hasNext ? tasks.subList(0, size) : tasks;
+        String nextCursor = null;
+        if (hasNext) {
+            TaskDTO last = page.get(page.size() - 1);
+            nextCursor = new TaskCursor(last.createdAt(), UUID.fromString(last.uuid())).encode();
+        }
+        return TaskPageDTO.builder()
+                .items(page)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskPageDTO findByQuery(TaskQueryDTO query) {
+        int size = query.size() == null ? DEFAULT_QUERY_PAGE_SIZE : query.size();
+        checkPageSize(size);
+        List<TaskOrder> orders = parseSort(query.sort());
+        TaskSearchEngine.KeywordFilter keyword = query.keyword() == null || query.keyword().isBlank()
+                ? null
+                : taskSearchEngine.matching(query.keyword());
+        Specification<Task> filter = Specification.allOf(
+                TaskSpecifications.priorityIn(parseEnums(Task.Priority.class, "priority", query.priority())),
+                TaskSpecifications.statusIn(parseEnums(Task.Status.class, "status", query.status())),
+                TaskSpecifications.categoryIdIn(categoryIds(query.category())),
+                TaskSpecifications.completed(query.completed()),
+                TaskSpecifications.dueBetween(query.dueFrom(), query.dueTo()),
+                keyword == null ? null : keyword.specification());
+        List<Comparable<?>> after = query.cursor() == null || query.cursor().isBlank()
+                ? null
+                : TaskQueryCursor.decode(query.cursor(), orders).keys();
+
+        List<TaskDTO> tasks = taskRepository.findTaskDTOs(filter, orders, after, size + 1);
+        boolean hasNext = tasks.size() > size;
+        List<TaskDTO> page = hasNext ? tasks.subList(0, size) : tasks;
+        String nextCursor = null;
+        if (hasNext) {
+            TaskDTO last = page.get(page.size() - 1);
+            List<Comparable<?>> keys = new ArrayList<>(orders.size());
+            orders.forEach(order -> keys.add(order.field().keyOf(last)));
+            nextCursor = new TaskQueryCursor(keys).encode(orders);
+        }
+        return TaskPageDTO.builder()
+                .items(page)
+                .nextCursor(nextCursor)
+                .truncated(keyword != null && keyword.truncated())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllOrderedByCreatedAt(Consumer<TaskDTO> consumer) {
+        // DTO projections aren't managed, so the persistence context stays empty however many rows are read
+        try (Stream<TaskDTO> tasks = taskRepository.streamAllTaskDTOsOrderedByCreatedAt()) {
+            tasks.forEach(consumer);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Task findByTitle(String title) {
         Task task = getTaskOrThrowByTitle(title);
         return task;
     }
 
     @Override
-    public List<Task> searchByKeyword(String keyword) {
-        return taskRepository.findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(keyword, keyword);
+    @Transactional(readOnly = true)
+    public List<TaskDTO> searchByKeyword(String keyword) {
+        return searchByKeyword(keyword, DEFAULT_SEARCH_LIMIT);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskDTO> searchByKeyword(String keyword, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidTaskException("Search limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<UUID> ranked = taskSearchEngine.search(keyword, limit);
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Integer> rankByUuid = new HashMap<>();
+        for (int i = 0; i < ranked.size(); i++) {
+            rankByUuid.put(ranked.get(i), i);
+        }
+        return taskRepository.findTaskDTOsByUuidIn(ranked).stream()
+                .sorted(Comparator.comparing(task -> rankByUuid.get(UUID.fromString(task.uuid()))))
+                .toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Task findByUuid(String uuidString) {
         Task task = getTaskOrThrowByUuid(uuidString);
         return task;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public TaskVersion findVersionByUuid(String uuidString) {
+        UUID uuid = safeParseUuid(uuidString);
+        return taskRepository.findVersionByUuid(uuid)
+                .orElseThrow(() -> new TaskNotFoundException(uuidString));
+    }
+
+    /**
+     * The feed version moves with every change committed through this instance, including the one committing
+     * after a later-stamped update which max(updatedAt) would miss; the maxima catch changes made elsewhere.
+     * Both lookups are single index probes.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TaskVersion findCollectionVersion() {
+        LocalDateTime lastModified = Stream.of(taskRepository.findLastUpdatedAt(), tombstoneRepository.findLastDeletedAt())
+                .flatMap(Optional::stream)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+        return new TaskVersion(taskChangeFeed.latestVersion(), lastModified);
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
     public void deleteByUuid(String uuidString){
         Task task = getTaskOrThrowByUuid(uuidString);
+        TaskDTO before = taskMapper.mapToDTO(task);
         taskRepository.delete(task);
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(before));
     }
 
     @Override
-    public Task updateByUuid(Task task) {
-        Task loadedTask = taskRepository.findByUuid(task.getUuid())
+    @Transactional
+    @RetryOnConflict
+    public Task updateByUuid(Task task, @RetryOnConflict.IfMatch Long expectedVersion) {
+        Task loadedTask = loadByUuid(task.getUuid())
                 .orElseThrow(() -> new TaskNotFoundException(task.getUuid().toString()));
+        checkVersion(loadedTask, expectedVersion);
+        TaskDTO before = taskMapper.mapToDTO(loadedTask);
 
         // Copy only non-null properties from incoming `task` to `loadedTask`
-        BeanUtils.copyProperties(task, loadedTask, getNullPropertyNames(task));
+        taskMapper.copyNonNullFields(task, loadedTask);
+        markWritten(loadedTask);
 
-        return taskRepository.save(loadedTask);
+        // Flushed now so the response and event carry the updatedAt set by @PreUpdate
+        flushWrite(loadedTask, before, nonNullFields(task), expectedVersion);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, taskMapper.mapToDTO(loadedTask)));
+        return loadedTask;
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public Task patchByUuid(String uuidString, JsonNode patch, @RetryOnConflict.IfMatch Long expectedVersion) {
+        Task loadedTask = getTaskOrThrowByUuid(uuidString);
+        checkVersion(loadedTask, expectedVersion);
+        TaskDTO before = taskMapper.mapToDTO(loadedTask);
+        taskMapper.applyMergePatch(patch, loadedTask);
+        markWritten(loadedTask);
+        List<String> fields = new ArrayList<>();
+        patch.fieldNames().forEachRemaining(fields::add);
+        // Managed entity with @DynamicUpdate: the flush only updates the columns that changed
+        flushWrite(loadedTask, before, fields, expectedVersion);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, taskMapper.mapToDTO(loadedTask)));
+        return loadedTask;
     }
 
     @Override
     public Task saveTask(Task task){
         Task saved = taskRepository.save(task) ;
+        eventPublisher.publishEvent(TaskChangedEvent.created(taskMapper.mapToDTO(saved)));
         log.info("Creating new task with title: {}", task.getTitle());
         return saved;
     }
 
     @Override
-    public List<Task> findByCategory(String categoryName) {
-        return taskRepository.findByCategory_Name(categoryName);
+    @Transactional
+    public List<BulkItemResultDTO> saveAll(List<TaskDTO> tasks) {
+        checkBulkSize(tasks);
+        BulkItemResultDTO[] results = new BulkItemResultDTO[tasks.size()];
+
+        Map<Integer, Task> valid = new LinkedHashMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskDTO dto = tasks.get(i);
+            try {
+                if (dto.title() == null || dto.title().isBlank() || dto.priority() == null) {
+                    throw new InvalidTaskException("Title and priority are required");
+                }
+                valid.put(i, taskMapper.mapToEntity(dto));
+            } catch (RuntimeException e) {
+                results[i] = bulkFailure(i, dto.uuid(), e);
+            }
+        }
+
+        // One query for every title already taken, plus duplicates inside the request itself
+        Set<String> takenTitles = new HashSet<>(taskRepository.findExistingTitles(
+                valid.values().stream().map(Task::getTitle).toList()));
+        List<Task> toInsert = new ArrayList<>(valid.size());
+        valid.forEach((index, task) -> {
+            if (!takenTitles.add(task.getTitle())) {
+                results[index] = BulkItemResultDTO.builder()
+                        .index(index)
+                        .status(HttpStatus.CONFLICT.value())
+                        .error("Task with title " + task.getTitle() + " already exists")
+                        .build();
+            } else {
+                toInsert.add(task);
+            }
+        });
+
+        taskRepository.saveAll(toInsert);
+        valid.forEach((index, task) -> {
+            if (results[index] == null) {
+                results[index] = bulkSuccess(index, HttpStatus.CREATED, task);
+                eventPublisher.publishEvent(TaskChangedEvent.created(results[index].task()));
+            }
+        });
+        log.info("Bulk created {} of {} tasks", toInsert.size(), tasks.size());
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @Transactional
+    public List<BulkItemResultDTO> updateAll(List<TaskDTO> tasks) {
+        checkBulkSize(tasks);
+        BulkItemResultDTO[] results = new BulkItemResultDTO[tasks.size()];
+
+        Map<Integer, Task> valid = new LinkedHashMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskDTO dto = tasks.get(i);
+            try {
+                safeParseUuid(dto.uuid());
+                valid.put(i, taskMapper.mapToEntity(dto));
+            } catch (RuntimeException e) {
+                results[i] = bulkFailure(i, dto.uuid(), e);
+            }
+        }
+
+        Map<UUID, Task> loaded = loadByUuids(valid.values().stream().map(Task::getUuid).toList());
+        Map<Integer, Task> found = new LinkedHashMap<>();
+        valid.forEach((index, task) -> {
+            Task loadedTask = loaded.get(task.getUuid());
+            Long expectedVersion = tasks.get(index).version();
+            if (loadedTask == null) {
+                results[index] = bulkFailure(index, task.getUuid().toString(),
+                        new TaskNotFoundException(task.getUuid().toString()));
+            } else if (expectedVersion != null && !expectedVersion.equals(loadedTask.getVersion())) {
+                results[index] = bulkFailure(index, task.getUuid().toString(),
+                        new TaskVersionMismatchException(task.getUuid().toString(), expectedVersion, loadedTask.getVersion()));
+            } else {
+                found.put(index, loadedTask);
+            }
+        });
+
+        // Like saveAll: one query for the titles taken, plus renames inside the request onto the same title. A
+        // title freed by another rename in the same request still counts as taken, the flush order can't be relied on
+        Map<Integer, String> renames = new LinkedHashMap<>();
+        found.forEach((index, loadedTask) -> {
+            String title = valid.get(index).getTitle();
+            if (title != null && !title.equals(loadedTask.getTitle())) {
+                renames.put(index, title);
+            }
+        });
+        Set<String> takenTitles = new HashSet<>(renames.isEmpty() ? List.of() : taskRepository.findExistingTitles(renames.values()));
+        renames.forEach((index, title) -> {
+            if (!takenTitles.add(title)) {
+                results[index] = BulkItemResultDTO.builder()
+                        .index(index)
+                        .uuid(found.remove(index).getUuid().toString())
+                        .status(HttpStatus.CONFLICT.value())
+                        .error("Task with title " + title + " already exists")
+                        .build();
+            }
+        });
+
+        Map<Integer, TaskDTO> before = new LinkedHashMap<>();
+        found.forEach((index, loadedTask) -> {
+            before.put(index, taskMapper.mapToDTO(loadedTask));
+            taskMapper.copyNonNullFields(valid.get(index), loadedTask);
+            markWritten(loadedTask);
+        });
+        // Managed entities: dirty checking flushes them as batched UPDATEs, stamping updatedAt for the results
+        taskRepository.flush();
+        before.forEach((index, previous) -> {
+            results[index] = bulkSuccess(index, HttpStatus.OK, found.get(index));
+            eventPublisher.publishEvent(TaskChangedEvent.updated(previous, results[index].task()));
+        });
+        return Arrays.asList(results);
     }
 
+    @Override
+    @Transactional
+    public List<BulkItemResultDTO> deleteAllByUuid(List<String> uuids) {
+        checkBulkSize(uuids);
+        BulkItemResultDTO[] results = new BulkItemResultDTO[uuids.size()];
+
+        Map<Integer, UUID> valid = new LinkedHashMap<>();
+        for (int i = 0; i < uuids.size(); i++) {
+            try {
+                valid.put(i, safeParseUuid(uuids.get(i)));
+            } catch (RuntimeException e) {
+                results[i] = bulkFailure(i, uuids.get(i), e);
+            }
+        }
+
+        Map<UUID, Task> loaded = loadByUuids(valid.values());
+        valid.forEach((index, uuid) -> {
+            Task task = loaded.get(uuid);
+            if (task == null) {
+                results[index] = bulkFailure(index, uuid.toString(), new TaskNotFoundException(uuid.toString()));
+            } else if (taskRepository.deleteByIdAndVersion(task.getId(), task.getVersion()) == 0) {
+                // Changed (or deleted) since it was loaded: only this item fails, the others are still deleted
+                results[index] = BulkItemResultDTO.builder()
+                        .index(index)
+                        .uuid(uuid.toString())
+                        .status(HttpStatus.CONFLICT.value())
+                        .error("Task was modified concurrently, reload it and retry")
+                        .build();
+            } else {
+                eventPublisher.publishEvent(TaskChangedEvent.deleted(taskMapper.mapToDTO(task)));
+                results[index] = BulkItemResultDTO.builder()
+                        .index(index)
+                        .uuid(uuid.toString())
+                        .status(HttpStatus.NO_CONTENT.value())
+                        .build();
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public int applyCompletions(Map<UUID, PendingCompletion> completions) {
+        List<UUID> uuids = new ArrayList<>(completions.keySet());
+        int changed = 0;
+        for (int from = 0; from < uuids.size(); from += MAX_BULK_SIZE) {
+            Map<Task, TaskDTO> before = new LinkedHashMap<>();
+            for (Task task : taskRepository.findByUuidIn(uuids.subList(from, Math.min(from + MAX_BULK_SIZE, uuids.size())))) {
+                PendingCompletion completion = completions.get(task.getUuid());
+                // A write since the toggle was accepted is newer than the toggle and wins
+                if (completion.version() != null && !completion.version().equals(task.getVersion())) {
+                    log.debug("Dropping completion toggle of task {}, written since at version {}", task.getUuid(), task.getVersion());
+                    continue;
+                }
+                if (completion.completed() != Boolean.TRUE.equals(task.getCompleted())) {
+                    before.put(task, taskMapper.mapToDTO(task));
+                    task.setCompleted(completion.completed());
+                }
+            }
+            // Managed entities with @DynamicUpdate: batched UPDATEs of completed that fail on a concurrent write
+            taskRepository.flush();
+            before.forEach((task, previous) ->
+                    eventPublisher.publishEvent(TaskChangedEvent.updated(previous, taskMapper.mapToDTO(task))));
+            changed += before.size();
+        }
+        return changed;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskDTO> findByCategory(String categoryName) {
+        return taskRepository.findTaskDTOsByCategoryName(categoryName);
+    }
+
+
+    private void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidTaskException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Parses {@code field[,asc|desc]} entries, defaulting to createdAt ascending, and appends uuid so
+     * every ordering is total.
+     */
+    private List<TaskOrder> parseSort(List<String> sort) {
+        List<TaskOrder> orders = new ArrayList<>();
+        Set<TaskSortField> seen = new HashSet<>();
+        for (String entry : sort == null ? List.<String>of() : sort) {
+            String[] parts = entry.split(",", -1);
+            TaskSortField field = TaskSortField.fromProperty(parts[0].trim())
+                    .orElseThrow(() -> new InvalidTaskException("Unknown sort field: " + parts[0]));
+            if (parts.length > 2 || !seen.add(field)) {
+                throw new InvalidTaskException("Invalid sort: " + entry);
+            }
+            String direction = parts.length == 2 ? parts[1].trim().toLowerCase() : "asc";
+            if (!direction.equals("asc") && !direction.equals("desc")) {
+                throw new InvalidTaskException("Invalid sort direction: " + parts[1]);
+            }
+            orders.add(new TaskOrder(field, direction.equals("asc")));
+        }
+        if (orders.isEmpty()) {
+            orders.add(new TaskOrder(TaskSortField.CREATED_AT, true));
+        }
+        orders.add(new TaskOrder(TaskSortField.TASK_UUID, true));
+        return orders;
+    }
+
+    private static <E extends Enum<E>> List<E> parseEnums(Class<E> type, String name, List<String> values) {
+        if (values == null) {
+            return List.of();
+        }
+        List<E> parsed = new ArrayList<>(values.size());
+        for (String value : values) {
+            try {
+                parsed.add(Enum.valueOf(type, value));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidTaskException("Invalid value for " + name + ": " + value);
+            }
+        }
+        return parsed;
+    }
+
+    private List<Long> categoryIds(List<String> names) {
+        if (names == null) {
+            return List.of();
+        }
+        // Served from the categoriesByName cache, so the filter stays a foreign key comparison
+        return names.stream().map(name -> categoryService.findByName(name).getId()).toList();
+    }
+
+    // The check covers edits made before this read; @Version covers the ones racing it until the flush
+    private static void checkVersion(Task loadedTask, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(loadedTask.getVersion())) {
+            throw new TaskVersionMismatchException(loadedTask.getUuid().toString(), expectedVersion, loadedTask.getVersion());
+        }
+    }
+
+    /**
+     * Flushes a write of {@code fields} onto a task read as {@code before}. Without If-Match, a write that lost the
+     * optimistic lock to one leaving those fields alone lets the conflict through for ConflictRetryAspect to apply
+     * it again on top; when that write changed any of them the conflict ends here as a 409.
+     */
+    private void flushWrite(Task task, TaskDTO before, Collection<String> fields, Long expectedVersion) {
+        try {
+            taskRepository.saveAndFlush(task);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion != null) {
+                throw e;
+            }
+            Optional<TaskDTO> current = taskRepository.findCommittedTaskDTOByUuid(task.getUuid());
+            List<String> overlapping = current.isEmpty() ? List.of() : fields.stream()
+                    .filter(field -> !Objects.equals(field(before, field), field(current.get(), field)))
+                    .toList();
+            if (!overlapping.isEmpty()) {
+                throw new TaskConflictException(task.getUuid().toString(), overlapping);
+            }
+            throw e;
+        }
+    }
+
+    private static List<String> nonNullFields(Task task) {
+        List<String> fields = new ArrayList<>();
+        if (task.getTitle() != null) fields.add("title");
+        if (task.getDescription() != null) fields.add("description");
+        if (task.getPriority() != null) fields.add("priority");
+        if (task.getCategory() != null) fields.add("categoryName");
+        if (task.getCompleted() != null) fields.add("completed");
+        if (task.getDueDate() != null) fields.add("dueDate");
+        if (task.getReminderDateTime() != null) fields.add("reminderDateTime");
+        if (task.getStatus() != null) fields.add("status");
+        return fields;
+    }
+
+    // The writable fields by their merge patch name
+    private static Object field(TaskDTO task, String name) {
+        return switch (name) {
+            case "title" -> task.title();
+            case "description" -> task.description();
+            case "priority" -> task.priority();
+            case "status" -> task.status();
+            case "categoryName" -> task.categoryName();
+            case "completed" -> task.completed();
+            case "dueDate" -> task.dueDate();
+            case "reminderDateTime" -> task.reminderDateTime();
+            default -> throw new IllegalArgumentException("Not a writable field: " + name);
+        };
+    }
 
     private Task getTaskOrThrowByUuid(String uuidString) {
         UUID uuid = safeParseUuid(uuidString);
-        return taskRepository.findByUuid(uuid)
+        return loadByUuid(uuid)
                 .orElseThrow(() -> {
                     log.warn("Task not found for uuid {}", uuidString);
                     return   new TaskNotFoundException(uuidString);
                 });
     }
 
+    // By primary key when the id is cached; findById also joins the category instead of a second select
+    private Optional<Task> loadByUuid(UUID uuid) {
+        String owner = TaskOwners.current();
+        Long id = taskIdCache.get(owner, uuid);
+        if (id != null) {
+            Optional<Task> task = taskRepository.findById(id).filter(found -> uuid.equals(found.getUuid()));
+            if (task.isPresent()) {
+                return task;
+            }
+            taskIdCache.evict(owner, uuid);
+        }
+        Optional<Task> task = taskRepository.findByUuid(uuid);
+        task.ifPresent(found -> taskIdCache.put(owner, uuid, found.getId()));
+        return task;
+    }
+
     private Task getTaskOrThrowByTitle(String title) {
         return taskRepository.findByTitle(title)
                 .orElseThrow(() -> {
@@ -105,6 +614,47 @@ public class TaskServiceImpl implements TaskService {
     }
 
 
+    private Map<UUID, Task> loadByUuids(Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return Map.of();
+        }
+        return taskRepository.findByUuidIn(uuids).stream()
+                .collect(Collectors.toMap(Task::getUuid, Function.identity()));
+    }
+
+    // A PUT or PATCH is a write even when it changes no field: stamping updatedAt makes the flush move the version,
+    // so a completion toggle accepted before it is not applied over it (see TaskCompletionServiceImpl)
+    private static void markWritten(Task task) {
+        task.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private void checkBulkSize(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_BULK_SIZE) {
+            throw new InvalidTaskException("Bulk requests must contain between 1 and " + MAX_BULK_SIZE + " items");
+        }
+    }
+
+    private BulkItemResultDTO bulkSuccess(int index, HttpStatus status, Task task) {
+        return BulkItemResultDTO.builder()
+                .index(index)
+                .uuid(task.getUuid().toString())
+                .status(status.value())
+                .task(taskMapper.mapToDTO(task))
+                .build();
+    }
+
+    private BulkItemResultDTO bulkFailure(int index, String uuid, RuntimeException e) {
+        HttpStatus status = e instanceof TaskNotFoundException || e instanceof CategoryNotFoundException
+                ? HttpStatus.NOT_FOUND
+                : e instanceof TaskVersionMismatchException ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+        return BulkItemResultDTO.builder()
+                .index(index)
+                .uuid(uuid)
+                .status(status.value())
+                .error(e.getMessage())
+                .build();
+    }
+
     private UUID safeParseUuid(String uuidString) {
         try {
             return UUID.fromString(uuidString);
@@ -113,19 +663,6 @@ public class TaskServiceImpl implements TaskService {
         }
     }
 
-    private String[] getNullPropertyNames(Object source) {
-        final BeanWrapper src = new BeanWrapperImpl(source);
-        PropertyDescriptor[] pds = src.getPropertyDescriptors();
-
-        Set<String> emptyNames = new HashSet<>();
-        for (PropertyDescriptor pd : pds) {
-            Object srcValue = src.getPropertyValue(pd.getName());
-            if (srcValue == null) {
-                emptyNames.add(pd.getName());
-            }
-        }
-        return emptyNames.toArray(new String[0]);
-    }
 
 
 
@@ -0,0 +1,19 @@
+package com.usef.workshop.todo.service;
+
+import com.usef.workshop.todo.controller.dto.TaskStatsDTO;
+
+/**
+ * @author HP
+ **/
+public interface TaskStatsService {
+
+    /**
+     * Returns the current counters without querying the database.
+     */
+    TaskStatsDTO getStats();
+
+    /**
+     * Recomputes every counter with GROUP BY queries and replaces the incremental values.
+     */
+    void reconcile();
+}
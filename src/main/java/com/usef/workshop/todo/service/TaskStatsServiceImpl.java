@@ -0,0 +1,311 @@
+package com.usef.workshop.todo.service;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.dto.TaskStatsDTO;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.repo.TaskDueDateCount;
+import com.usef.workshop.todo.repo.TaskGroupCount;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the dashboard counters in memory, adjusted by every committed {@link TaskChangedEvent},
+ * so reading them costs nothing. A scheduled reconciliation against GROUP BY queries repairs any drift
+ * (changes made outside TaskService). Events delivered while it counts are replayed on top of the counts unless
+ * the counts already include them, which the versions of their tasks in the same snapshot tell.
+ * <p>
+ * Counters are kept per owner and {@link #getStats} returns the current owner's. Callers bound to TaskOwners.ROOT
+ * get the sum over every owner.
+ *
+ * @author HP
+ **/
+@Slf4j
+@Service
+public class TaskStatsServiceImpl implements TaskStatsService {
+
+    private static final int VERSION_BATCH_SIZE = 1000;
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate reconcileTransaction;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, Counters> counters = new HashMap<>();
+    private LocalDateTime reconciledAt;
+    // Events delivered since reconcile started counting, null the rest of the time
+    private List<TaskChangedEvent> changedDuringCount;
+
+    public TaskStatsServiceImpl(TaskRepository taskRepository, PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        // On the primary, which every delivered event has committed to, and with every query reading one snapshot
+        this.reconcileTransaction = new TransactionTemplate(transactionManager);
+        this.reconcileTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Override
+    public TaskStatsDTO getStats() {
+        String owner = TaskOwners.current();
+        lock.lock();
+        try {
+            Counters owned;
+            if (TaskOwners.isRoot(owner)) {
+                owned = new Counters();
+                counters.values().forEach(owned::addAll);
+            } else {
+                owned = counters.getOrDefault(owner, new Counters());
+            }
+            return owned.snapshot(LocalDate.now(), reconciledAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        lock.lock();
+        try {
+            Counters owned = counters.computeIfAbsent(event.owner(), owner -> new Counters());
+            if (event.before() != null) {
+                owned.apply(event.before(), -1);
+            }
+            if (event.after() != null) {
+                owned.apply(event.after(), 1);
+            }
+            if (changedDuringCount != null) {
+                changedDuringCount.add(event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${todo.stats.reconcile-interval}", initialDelayString = "${todo.stats.reconcile-interval}")
+    public void reconcile() {
+        // Bound before the transaction opens its session, so the GROUP BY covers every owner
+        TaskOwners.runAs(TaskOwners.ROOT, () -> reconcileTransaction.executeWithoutResult(status -> countAndSwap()));
+    }
+
+    private void countAndSwap() {
+        lock.lock();
+        try {
+            changedDuringCount = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            Map<String, Counters> fresh = new HashMap<>();
+            for (TaskGroupCount group : taskRepository.countByCategoryStatusPriorityAndCompleted()) {
+                fresh.computeIfAbsent(group.ownerId(), owner -> new Counters())
+                        .addGroup(group.categoryName(), group.status().name(), group.priority().name(),
+                                Boolean.TRUE.equals(group.completed()), group.count());
+            }
+            for (TaskDueDateCount due : taskRepository.countOpenTasksByDueDate()) {
+                fresh.computeIfAbsent(due.ownerId(), owner -> new Counters()).addOpenDue(due.dueDate(), due.count());
+            }
+
+            // Held until the swap, so no event is delivered between the replay and the swap
+            lock.lock();
+            try {
+                replayChangesMissedByCount(fresh);
+                if (reconciledAt != null) {
+                    Set<String> owners = new HashSet<>(counters.keySet());
+                    owners.addAll(fresh.keySet());
+                    for (String owner : owners) {
+                        Counters counted = fresh.getOrDefault(owner, new Counters());
+                        Counters stored = counters.getOrDefault(owner, new Counters());
+                        if (!counted.sameCountsAs(stored)) {
+                            log.warn("Task stats of {} drifted from the database and were corrected: {} tasks counted, {} stored",
+                                    owner, counted.total, stored.total);
+                        }
+                    }
+                }
+                counters = fresh;
+                reconciledAt = LocalDateTime.now();
+            } finally {
+                lock.unlock();
+            }
+            log.debug("Task stats reconciled for {} owners", fresh.size());
+        } finally {
+            lock.lock();
+            try {
+                changedDuringCount = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies to {@code fresh} the events delivered during the count that committed after its snapshot. Reading the
+     * versions of their tasks in that snapshot tells them apart: a task's events from the one leaving it at its
+     * counted version (or deleted, when it isn't counted) on are already counted. Runs under the lock.
+     */
+    private void replayChangesMissedByCount(Map<String, Counters> fresh) {
+        if (changedDuringCount.isEmpty()) {
+            return;
+        }
+        Map<TaskKey, List<TaskChangedEvent>> byTask = new HashMap<>();
+        for (TaskChangedEvent event : changedDuringCount) {
+            byTask.computeIfAbsent(new TaskKey(event.owner(), event.uuid()), key -> new ArrayList<>()).add(event);
+        }
+        Map<TaskKey, Long> counted = new HashMap<>();
+        List<UUID> uuids = byTask.keySet().stream().map(TaskKey::uuid).distinct().toList();
+        for (int from = 0; from < uuids.size(); from += VERSION_BATCH_SIZE) {
+            taskRepository.findOwnedVersionsByUuidIn(uuids.subList(from, Math.min(from + VERSION_BATCH_SIZE, uuids.size())))
+                    .forEach(task -> counted.put(new TaskKey(task.ownerId(), task.uuid()), task.version()));
+        }
+
+        int replayed = 0;
+        for (Map.Entry<TaskKey, List<TaskChangedEvent>> task : byTask.entrySet()) {
+            // Delivered after their commits, so two quick writes to a task can arrive swapped
+            List<TaskChangedEvent> events = task.getValue();
+            events.sort(Comparator.comparingLong(TaskStatsServiceImpl::sequence));
+            Long countedVersion = counted.get(task.getKey());
+            int missed = 0;
+            for (int i = events.size() - 1; i >= 0; i--) {
+                TaskDTO after = events.get(i).after();
+                if (after == null ? countedVersion == null : Objects.equals(after.version(), countedVersion)) {
+                    missed = i + 1;
+                    break;
+                }
+            }
+            Counters owned = fresh.computeIfAbsent(task.getKey().owner(), owner -> new Counters());
+            for (TaskChangedEvent event : events.subList(missed, events.size())) {
+                if (event.before() != null) {
+                    owned.apply(event.before(), -1);
+                }
+                if (event.after() != null) {
+                    owned.apply(event.after(), 1);
+                }
+                replayed++;
+            }
+        }
+        log.debug("Replayed {} of {} task changes delivered during the stats count", replayed, changedDuringCount.size());
+    }
+
+    // Position of an event in its task's history: the version it leaves the task at, one past the last for a delete
+    private static long sequence(TaskChangedEvent event) {
+        TaskDTO state = event.after() != null ? event.after() : event.before();
+        long version = Objects.requireNonNullElse(state.version(), 0L);
+        return event.after() != null ? version : version + 1;
+    }
+
+    private record TaskKey(String owner, UUID uuid) {
+    }
+
+    /**
+     * Counter state; guarded by the service lock.
+     */
+    private static final class Counters {
+        private long total;
+        private long completed;
+        private final Map<String, Long> byStatus = new HashMap<>();
+        private final Map<String, Long> byPriority = new HashMap<>();
+        private final Map<String, Long> byCategory = new HashMap<>();
+        private final NavigableMap<LocalDate, Long> openByDueDate = new TreeMap<>();
+
+        // Overdue is summed from openByDueDate once per day, then kept up to date by apply
+        private LocalDate overdueAsOf;
+        private long overdue;
+
+        void apply(TaskDTO task, long delta) {
+            boolean done = Boolean.TRUE.equals(task.completed());
+            addGroup(task.categoryName(), task.status(), task.priority(), done, delta);
+            if (!done && task.dueDate() != null) {
+                addOpenDue(task.dueDate(), delta);
+            }
+        }
+
+        void addGroup(String category, String status, String priority, boolean done, long delta) {
+            total += delta;
+            if (done) {
+                completed += delta;
+            }
+            add(byStatus, status, delta);
+            add(byPriority, priority, delta);
+            add(byCategory, category, delta);
+        }
+
+        void addAll(Counters other) {
+            total += other.total;
+            completed += other.completed;
+            other.byStatus.forEach((key, count) -> add(byStatus, key, count));
+            other.byPriority.forEach((key, count) -> add(byPriority, key, count));
+            other.byCategory.forEach((key, count) -> add(byCategory, key, count));
+            other.openByDueDate.forEach((key, count) -> add(openByDueDate, key, count));
+        }
+
+        void addOpenDue(LocalDate dueDate, long delta) {
+            add(openByDueDate, dueDate, delta);
+            if (overdueAsOf != null && dueDate.isBefore(overdueAsOf)) {
+                overdue += delta;
+            }
+        }
+
+        TaskStatsDTO snapshot(LocalDate today, LocalDateTime reconciledAt) {
+            if (!today.equals(overdueAsOf)) {
+                overdue = openByDueDate.headMap(today).values().stream().mapToLong(Long::longValue).sum();
+                overdueAsOf = today;
+            }
+            return TaskStatsDTO.builder()
+                    .total(total)
+                    .completed(completed)
+                    .overdue(overdue)
+                    .byStatus(withEveryValue(Task.Status.values(), byStatus))
+                    .byPriority(withEveryValue(Task.Priority.values(), byPriority))
+                    .byCategory(new TreeMap<>(byCategory))
+                    .reconciledAt(reconciledAt)
+                    .build();
+        }
+
+        boolean sameCountsAs(Counters other) {
+            return total == other.total && completed == other.completed
+                    && byStatus.equals(other.byStatus) && byPriority.equals(other.byPriority)
+                    && byCategory.equals(other.byCategory) && openByDueDate.equals(other.openByDueDate);
+        }
+
+        private static <K> void add(Map<K, Long> counts, K key, long delta) {
+            if (key != null) {
+                // Drop keys that reach zero so deleted categories and past days don't pile up
+                counts.compute(key, (k, count) -> {
+                    long updated = Objects.requireNonNullElse(count, 0L) + delta;
+                    return updated == 0 ? null : updated;
+                });
+            }
+        }
+
+        private static Map<String, Long> withEveryValue(Enum<?>[] values, Map<String, Long> counts) {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (Enum<?> value : values) {
+                result.put(value.name(), counts.getOrDefault(value.name(), 0L));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.usef.workshop.todo.service;
+
+import com.usef.workshop.todo.controller.dto.TaskSyncDTO;
+
+/**
+ * @author HP
+ **/
+public interface TaskSyncService {
+
+    /**
+     * Returns up to {@code size} tasks changed after {@code token}, and the tasks deleted since, in watermark order.
+     * A null token starts a full sync.
+     */
+    TaskSyncDTO sync(String token, int size);
+
+    /**
+     * Deletes the tombstones older than the retention.
+     */
+    void compactTombstones();
+}
@@ -0,0 +1,110 @@
+package com.usef.workshop.todo.service;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.dto.TaskSyncDTO;
+import com.usef.workshop.todo.entity.TaskTombstone;
+import com.usef.workshop.todo.exception.InvalidTaskException;
+import com.usef.workshop.todo.exception.SyncTokenExpiredException;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.repo.TaskTombstoneRepository;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Delta sync over the (updated_at, uuid) index and the tombstones left by deletions.
+ * <p>
+ * A sync only returns rows stamped at least {@code todo.sync.commit-margin} ago: a transaction that stamped
+ * a row earlier but commits after the read would otherwise fall behind the returned watermark and never be
+ * synced. Changes younger than the margin come with the next sync (or live through GET /changes).
+ *
+ * @author HP
+ **/
+@Slf4j
+@Service
+public class TaskSyncServiceImpl implements TaskSyncService {
+
+    private final TaskRepository taskRepository;
+    private final TaskTombstoneRepository tombstoneRepository;
+    private final Duration commitMargin;
+    private final Duration tombstoneRetention;
+
+    public TaskSyncServiceImpl(TaskRepository taskRepository,
+                               TaskTombstoneRepository tombstoneRepository,
+                               @Value("${todo.sync.commit-margin}") Duration commitMargin,
+                               @Value("${todo.sync.tombstone-retention}") Duration tombstoneRetention) {
+        this.taskRepository = taskRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.commitMargin = commitMargin;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskSyncDTO sync(String token, int size) {
+        if (size < 1 || size > TaskServiceImpl.MAX_PAGE_SIZE) {
+            throw new InvalidTaskException("Page size must be between 1 and " + TaskServiceImpl.MAX_PAGE_SIZE);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        TaskSyncToken since = token == null || token.isBlank() ? null : TaskSyncToken.decode(token);
+        if (since != null && since.updatedAt().isBefore(now.minus(tombstoneRetention))) {
+            throw new SyncTokenExpiredException("Sync token is older than " + tombstoneRetention + ", start a full sync");
+        }
+        TaskSyncToken from = since != null ? since : TaskSyncToken.ORIGIN;
+        LocalDateTime until = now.minus(commitMargin);
+
+        List<TaskDTO> tasks = taskRepository.findTaskDTOsUpdatedAfter(from.updatedAt(), from.uuid(), until,
+                PageRequest.ofSize(size + 1));
+        boolean hasMore = tasks.size() > size;
+        List<TaskDTO> page = hasMore ? tasks.subList(0, size) : tasks;
+
+        TaskSyncToken next;
+        if (hasMore) {
+            TaskDTO last = page.get(page.size() - 1);
+            next = new TaskSyncToken(last.updatedAt(), UUID.fromString(last.uuid()));
+        } else {
+            // Everything up to the cap has been returned, so move there even if nothing changed
+            next = until.isAfter(from.updatedAt()) ? new TaskSyncToken(until, TaskSyncToken.ORIGIN.uuid()) : from;
+        }
+
+        // A full sync starts from an empty client, which has nothing to delete
+        List<String> deleted = since == null
+                ? List.of()
+                : tombstoneRepository.findUuidsDeletedBetween(since.updatedAt(), next.updatedAt()).stream()
+                        .map(UUID::toString)
+                        .toList();
+        return TaskSyncDTO.builder()
+                .changed(page)
+                .deleted(deleted)
+                .nextToken(next.encode())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Runs inside the deleting transaction, so the tombstone commits or rolls back with the delete
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.type() == TaskChangedEvent.Type.DELETED) {
+            tombstoneRepository.save(new TaskTombstone(event.owner(), event.uuid(), LocalDateTime.now()));
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${todo.sync.compaction-interval}", initialDelayString = "${todo.sync.compaction-interval}")
+    public void compactTombstones() {
+        // Every owner's tombstones
+        int removed = TaskOwners.callAs(TaskOwners.ROOT,
+                () -> tombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minus(tombstoneRetention)));
+        log.info("Compacted {} task tombstones older than {}", removed, tombstoneRetention);
+    }
+}
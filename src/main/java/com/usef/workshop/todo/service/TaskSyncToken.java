@@ -0,0 +1,25 @@
+package com.usef.workshop.todo.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sync watermark: position in the (updatedAt, uuid) ordering of tasks up to which a client is in sync.
+ *
+ * @author HP
+ **/
+public record TaskSyncToken(LocalDateTime updatedAt, UUID uuid) {
+
+    /**
+     * Before every task, where a first sync starts.
+     */
+    public static final TaskSyncToken ORIGIN = new TaskSyncToken(LocalDateTime.of(1970, 1, 1, 0, 0), new UUID(0, 0));
+
+    public String encode() {
+        return KeysetTokens.encode(updatedAt, uuid);
+    }
+
+    public static TaskSyncToken decode(String token) {
+        return KeysetTokens.decode(token, "sync token", TaskSyncToken::new);
+    }
+}
@@ -0,0 +1,32 @@
+package com.usef.workshop.todo.service;
+
+import com.usef.workshop.todo.controller.dto.TaskImportJobDTO;
+import com.usef.workshop.todo.service.transfer.TaskFileFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * @author HP
+ **/
+public interface TaskTransferService {
+
+    /**
+     * Writes every task to {@code out} in creation order, streamed from a database cursor.
+     */
+    void export(TaskFileFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Copies {@code in} to a temporary file and imports it in the background, in chunked transactions.
+     */
+    TaskImportJobDTO startImport(TaskFileFormat format, InputStream in) throws IOException;
+
+    TaskImportJobDTO findImportJob(String id);
+
+    /**
+     * Writes the rows of the import that failed so far, one BulkItemResultDTO per line, {@code index}
+     * being the row number.
+     */
+    void writeImportErrors(String id, OutputStream out) throws IOException;
+}
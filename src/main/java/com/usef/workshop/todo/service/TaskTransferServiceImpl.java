@@ -0,0 +1,274 @@
+package com.usef.workshop.todo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.usef.workshop.todo.controller.dto.BulkItemResultDTO;
+import com.usef.workshop.todo.controller.dto.TaskImportJobDTO;
+import com.usef.workshop.todo.exception.ImportJobNotFoundException;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.service.transfer.TaskCsv;
+import com.usef.workshop.todo.service.transfer.TaskFileFormat;
+import com.usef.workshop.todo.service.transfer.TaskImportJob;
+import com.usef.workshop.todo.service.transfer.TaskImportReader;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Export streams the repository cursor behind streamAllOrderedByCreatedAt straight into the response.
+ * <p>
+ * An import is spooled to a temporary file first, so the request returns as soon as the upload is in, then read
+ * back one row at a time by a background job. Every {@code todo.transfer.chunk-size} rows go through
+ * {@link TaskService#saveAll} as one transaction: categories come from the name cache, taken titles and uuids are
+ * found with one query each, and the inserts are JDBC batched. Failed rows are appended to an errors file rather
+ * than kept, so an import of any size runs in the memory of one chunk. The job thread works as the owner that
+ * submitted the import.
+ *
+ * @author HP
+ **/
+@Slf4j
+@Service
+public class TaskTransferServiceImpl implements TaskTransferService {
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private final TaskService taskService;
+    private final TaskRepository taskRepository;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final Duration jobRetention;
+    private final ExecutorService importers;
+    private final Map<String, TaskImportJob> jobs = new ConcurrentHashMap<>();
+
+    public TaskTransferServiceImpl(TaskService taskService,
+                                   TaskRepository taskRepository,
+                                   ObjectMapper objectMapper,
+                                   @Value("${todo.transfer.chunk-size}") int chunkSize,
+                                   @Value("${todo.transfer.concurrency}") int concurrency,
+                                   @Value("${todo.transfer.job-retention}") Duration jobRetention) {
+        if (chunkSize < 1 || chunkSize > TaskServiceImpl.MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("todo.transfer.chunk-size must be between 1 and " + TaskServiceImpl.MAX_BULK_SIZE);
+        }
+        this.taskService = taskService;
+        this.taskRepository = taskRepository;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.jobRetention = jobRetention;
+        this.importers = Executors.newFixedThreadPool(concurrency, Thread.ofVirtual().name("task-import-", 0).factory());
+    }
+
+    @Override
+    public void export(TaskFileFormat format, OutputStream out) throws IOException {
+        try (SequenceWriter writer = switch (format) {
+            case CSV -> CSV_MAPPER.writer().with(CsvGenerator.Feature.STRICT_CHECK_FOR_QUOTING).writeValues(out);
+            case NDJSON -> objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out);
+        }) {
+            if (format == TaskFileFormat.CSV) {
+                writer.write(TaskCsv.COLUMNS.toArray(String[]::new));
+            }
+            taskService.streamAllOrderedByCreatedAt(task -> {
+                try {
+                    writer.write(format == TaskFileFormat.CSV ? TaskCsv.toRow(task) : task);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Override
+    public TaskImportJobDTO startImport(TaskFileFormat format, InputStream in) throws IOException {
+        Path upload = Files.createTempFile("task-import-", "." + format.extension());
+        Path errors;
+        try {
+            Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            errors = Files.createTempFile("task-import-errors-", ".ndjson");
+        } catch (IOException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        TaskImportJob job = new TaskImportJob(TaskOwners.current(), format, upload, errors);
+        log.info("Queued {} import {} of {} bytes for {}", format, job.id(), Files.size(upload), job.owner());
+        jobs.put(job.id(), job);
+        importers.execute(() -> TaskOwners.runAs(job.owner(), () -> runImport(job)));
+        return job.toDTO();
+    }
+
+    @Override
+    public TaskImportJobDTO findImportJob(String id) {
+        return getJobOrThrow(id).toDTO();
+    }
+
+    @Override
+    public void writeImportErrors(String id, OutputStream out) throws IOException {
+        Files.copy(getJobOrThrow(id).errors(), out);
+    }
+
+    @Scheduled(fixedDelayString = "${todo.transfer.job-retention}", initialDelayString = "${todo.transfer.job-retention}")
+    public void evictImportJobs() {
+        LocalDateTime before = LocalDateTime.now().minus(jobRetention);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt() == null || job.finishedAt().isAfter(before)) {
+                return false;
+            }
+            deleteQuietly(job.errors());
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // A chunk cut short rolls back as a whole
+        importers.shutdownNow();
+    }
+
+    void runImport(TaskImportJob job) {
+        job.start();
+        String error = null;
+        try (TaskImportReader reader = TaskImportReader.open(job.format(), job.upload(), objectMapper);
+             SequenceWriter errors = objectMapper.writer()
+                     .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                     .withRootValueSeparator("\n")
+                     .writeValues(new BufferedOutputStream(Files.newOutputStream(job.errors())))) {
+            List<TaskImportReader.Row> chunk = new ArrayList<>(chunkSize);
+            for (TaskImportReader.Row row = reader.next(); row != null; row = reader.next()) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(job, chunk, errors);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk, errors);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Import {} stopped: {}", job.id(), e.getMessage());
+            error = e.getMessage();
+        } finally {
+            deleteQuietly(job.upload());
+        }
+        job.finish(error);
+        log.info("Import {} finished: {}", job.id(), job.toDTO());
+    }
+
+    private void importChunk(TaskImportJob job, List<TaskImportReader.Row> rows, SequenceWriter errors) throws IOException {
+        List<TaskImportReader.Row> candidates = new ArrayList<>(rows.size());
+        for (TaskImportReader.Row row : rows) {
+            if (row.error() != null) {
+                fail(job, errors, row, HttpStatus.BAD_REQUEST.value(), row.error());
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        // saveAll checks titles; a uuid already taken (by the database or an earlier row) is checked here
+        List<UUID> uuids = candidates.stream()
+                .map(row -> parseUuid(row.task().uuid()))
+                .filter(Objects::nonNull)
+                .toList();
+        Set<UUID> existing = uuids.isEmpty() ? new HashSet<>() : new HashSet<>(taskRepository.findExistingUuids(uuids));
+        List<TaskImportReader.Row> toSave = new ArrayList<>(candidates.size());
+        for (TaskImportReader.Row row : candidates) {
+            UUID uuid = parseUuid(row.task().uuid());
+            if (uuid != null && !existing.add(uuid)) {
+                fail(job, errors, row, HttpStatus.CONFLICT.value(), "Task with uuid " + uuid + " already exists");
+            } else {
+                toSave.add(row);
+            }
+        }
+
+        if (!toSave.isEmpty()) {
+            try {
+                List<BulkItemResultDTO> results = taskService.saveAll(toSave.stream().map(TaskImportReader.Row::task).toList());
+                for (int i = 0; i < results.size(); i++) {
+                    BulkItemResultDTO result = results.get(i);
+                    if (result.status() == HttpStatus.CREATED.value()) {
+                        job.recordCreated();
+                    } else {
+                        fail(job, errors, toSave.get(i), result.status(), result.error());
+                    }
+                }
+            } catch (RuntimeException e) {
+                // The chunk's transaction rolled back, so none of its rows were written
+                log.warn("Import {} chunk failed: {}", job.id(), e.getMessage());
+                int status = e instanceof DataIntegrityViolationException
+                        ? HttpStatus.CONFLICT.value()
+                        : HttpStatus.INTERNAL_SERVER_ERROR.value();
+                for (TaskImportReader.Row row : toSave) {
+                    fail(job, errors, row, status, "Chunk rolled back: " + e.getMessage());
+                }
+            }
+        }
+        errors.flush();
+    }
+
+    private static void fail(TaskImportJob job, SequenceWriter errors, TaskImportReader.Row row, int status,
+                             String message) throws IOException {
+        job.recordFailed();
+        errors.write(BulkItemResultDTO.builder()
+                .index((int) row.number())
+                .uuid(row.task() != null ? row.task().uuid() : null)
+                .status(status)
+                .error(message)
+                .build());
+    }
+
+    private TaskImportJob getJobOrThrow(String id) {
+        TaskImportJob job = jobs.get(id);
+        if (job == null || !job.owner().equals(TaskOwners.current())) {
+            throw new ImportJobNotFoundException(id);
+        }
+        return job;
+    }
+
+    private static UUID parseUuid(String uuid) {
+        if (uuid == null || uuid.isBlank()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(uuid);
+        } catch (IllegalArgumentException e) {
+            // Reported by saveAll along with the other mapping errors
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
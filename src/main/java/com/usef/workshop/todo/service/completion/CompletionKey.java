@@ -0,0 +1,11 @@
+package com.usef.workshop.todo.service.completion;
+
+import java.util.UUID;
+
+/**
+ * The task a completion toggle is for: uuids are only unique within an owner.
+ *
+ * @author HP
+ **/
+public record CompletionKey(String owner, UUID uuid) {
+}
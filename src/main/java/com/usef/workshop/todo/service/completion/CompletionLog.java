@@ -0,0 +1,179 @@
+package com.usef.workshop.todo.service.completion;
+
+import com.usef.workshop.todo.service.TaskOwners;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead log of the completion toggles not yet written to the database, one {@code owner,uuid,version,0|1} line
+ * each. Lines without a version are applied whatever the task's version, and lines without an owner, written before
+ * tasks had owners, are the default owner's.
+ * <p>
+ * Lines go to the current segment file; a flush rotates to a new segment and deletes the sealed ones once their
+ * toggles are committed. Whatever segments a crash leaves behind are read back on startup, the last line of a task
+ * winning, and a line cut short by the crash is skipped. Every append reaches the OS before the request returns,
+ * which survives the process dying; {@code fsync} also forces it to disk, which survives the machine dying.
+ *
+ * @author HP
+ **/
+@Slf4j
+public final class CompletionLog implements Closeable {
+
+    private static final String PREFIX = "completions-";
+    private static final String SUFFIX = ".wal";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<CompletionKey, PendingCompletion> recovered;
+    private FileChannel segment;
+    private long generation;
+
+    public CompletionLog(Path directory, boolean fsync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.fsync = fsync;
+        List<Long> leftovers = generations();
+        this.recovered = read(leftovers);
+        this.generation = leftovers.isEmpty() ? 0 : leftovers.get(leftovers.size() - 1);
+        rotate();
+        // The recovered toggles move to the new segment before the old ones go
+        recovered.forEach(this::append);
+        if (!recovered.isEmpty()) {
+            segment.force(false);
+            log.info("Recovered {} pending completions from {}", recovered.size(), directory);
+        }
+        deleteThrough(generation - 1);
+    }
+
+    /**
+     * Toggles left unflushed by the previous run.
+     */
+    public Map<CompletionKey, PendingCompletion> recovered() {
+        return recovered;
+    }
+
+    public void append(CompletionKey key, PendingCompletion completion) {
+        // Owner ids are plain ASCII without commas (TaskOwners.isValid). The flag goes last so a line cut short
+        // never reads as a complete one
+        String version = completion.version() == null ? "" : "," + completion.version();
+        ByteBuffer line = ByteBuffer.wrap((key.owner() + "," + key.uuid() + version + (completion.completed() ? ",1\n" : ",0\n"))
+                .getBytes(StandardCharsets.US_ASCII));
+        lock.lock();
+        try {
+            while (line.hasRemaining()) {
+                segment.write(line);
+            }
+            if (fsync) {
+                segment.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the completion log in " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Seals the current segment and starts the next one; returns the sealed generation.
+     */
+    public long rotate() throws IOException {
+        lock.lock();
+        try {
+            if (segment != null) {
+                segment.force(false);
+                segment.close();
+            }
+            generation++;
+            segment = FileChannel.open(segmentPath(generation),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            return generation - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the sealed segments up to {@code sealed}, once everything in them is committed.
+     */
+    public void deleteThrough(long sealed) throws IOException {
+        for (long existing : generations()) {
+            if (existing <= sealed) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            segment.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<CompletionKey, PendingCompletion> read(List<Long> generations) throws IOException {
+        Map<CompletionKey, PendingCompletion> entries = new LinkedHashMap<>();
+        for (long existing : generations) {
+            try (Stream<String> lines = Files.lines(segmentPath(existing), StandardCharsets.US_ASCII)) {
+                lines.forEach(line -> {
+                    String[] fields = line.split(",", -1);
+                    int uuid = fields.length == 2 ? 0 : 1;
+                    String owner = fields.length > 2 ? fields[0] : TaskOwners.DEFAULT;
+                    String flag = fields[fields.length - 1];
+                    try {
+                        if (fields.length >= 2 && fields.length <= 4 && TaskOwners.isValid(owner)
+                                && (flag.equals("0") || flag.equals("1"))) {
+                            Long version = fields.length == 4 ? Long.valueOf(fields[2]) : null;
+                            entries.put(new CompletionKey(owner, UUID.fromString(fields[uuid])),
+                                    new PendingCompletion(flag.equals("1"), version));
+                            return;
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // Falls through to the warning
+                    }
+                    log.warn("Skipping torn completion log line: {}", line);
+                });
+            }
+        }
+        return entries;
+    }
+
+    private List<Long> generations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            generations.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                        } catch (NumberFormatException e) {
+                            log.warn("Ignoring unexpected file {} in {}", name, directory);
+                        }
+                    });
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private Path segmentPath(long generation) {
+        return directory.resolve(PREFIX + generation + SUFFIX);
+    }
+}
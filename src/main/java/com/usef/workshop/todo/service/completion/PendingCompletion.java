@@ -0,0 +1,11 @@
+package com.usef.workshop.todo.service.completion;
+
+/**
+ * A completion toggle waiting for the flush, with the version the task had when the toggle was accepted.
+ * The flush only applies it to that version, so a write that came after the toggle is never overwritten.
+ * {@code version} is null for toggles recovered from log lines written before versions were logged.
+ *
+ * @author HP
+ **/
+public record PendingCompletion(boolean completed, Long version) {
+}
@@ -0,0 +1,319 @@
+package com.usef.workshop.todo.service.event;
+
+import com.usef.workshop.todo.controller.dto.TaskChangeDTO;
+import com.usef.workshop.todo.service.TaskOwners;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-Sent Events feed of committed task changes, numbered with a monotonic version.
+ * <p>
+ * The last {@code todo.changes.buffer-size} changes of each owner are kept in a ring of that owner's, so a busy
+ * owner can't push another's changes out. Rings hold {@code todo.changes.max-entries} changes between them: past
+ * that the rings of the owners that were least recently active go, and only the version each had reached is kept.
+ * A subscriber is only a cursor into its owner's ring: publishing appends once and wakes the owner's subscribers,
+ * each of which is then drained on a virtual thread of its own, so a slow client never holds up the others and an
+ * idle one costs no thread at all. A subscriber that falls more than the ring behind, or asks to resume from a
+ * version its owner's ring no longer holds, is sent a {@code reset} event and closed, and should reload the task
+ * list before subscribing again. Versions are shared by every owner, so the ones a subscriber receives have gaps.
+ * <p>
+ * A version is the epoch second the application started at, followed by {@value #SEQUENCE_BITS} bits counting
+ * the changes since. Versions of a later run are all higher, so one from a previous run is recognised as too old
+ * rather than replayed wrongly. Running past 2^{@value #SEQUENCE_BITS} changes carries into the epoch, which takes
+ * far longer than the clock takes to get there.
+ *
+ * @author HP
+ **/
+@Slf4j
+@Service
+public class TaskChangeFeed {
+
+    static final String CHANGE_EVENT = "task";
+    static final String RESET_EVENT = "reset";
+    static final int SEQUENCE_BITS = 30;
+
+    private final int bufferSize;
+    private final int maxEntries;
+    private final long timeoutMillis;
+    private final long firstVersion;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Access order, so the first ring is the one of the owner least recently active
+    private final LinkedHashMap<String, Ring> rings = new LinkedHashMap<>(16, 0.75f, true);
+    // Versions the owners whose ring was dropped had reached
+    private final Map<String, Long> evictedUpTo = new HashMap<>();
+    private int entries;
+    private long latestVersion;
+
+    public TaskChangeFeed(@Value("${todo.changes.buffer-size}") int bufferSize,
+                          @Value("${todo.changes.max-entries}") int maxEntries,
+                          @Value("${todo.changes.timeout}") Duration timeout,
+                          MeterRegistry meterRegistry) {
+        if (bufferSize < 1 || maxEntries < bufferSize) {
+            throw new IllegalArgumentException("todo.changes.max-entries must hold at least one full ring");
+        }
+        this.bufferSize = bufferSize;
+        this.maxEntries = maxEntries;
+        this.timeoutMillis = timeout.toMillis();
+        this.latestVersion = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) << SEQUENCE_BITS;
+        this.firstVersion = latestVersion + 1;
+        Gauge.builder("todo.changes.subscribers", subscribers,
+                        owners -> owners.values().stream().mapToInt(Set::size).sum())
+                .description("Open task change feed connections")
+                .register(meterRegistry);
+        Gauge.builder("todo.changes.entries", this, feed -> feed.entries)
+                .description("Task changes held for subscribers to resume from")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        lock.lock();
+        try {
+            long version = ++latestVersion;
+            Ring ring = rings.computeIfAbsent(event.owner(), owner -> {
+                Long evicted = evictedUpTo.remove(owner);
+                return new Ring(bufferSize, evicted != null ? evicted : firstVersion - 1);
+            });
+            entries += ring.add(TaskChangeDTO.builder()
+                    .version(version)
+                    .type(event.type().name())
+                    .uuid(event.uuid().toString())
+                    .task(event.after())
+                    .build());
+            evictIdleRings();
+        } finally {
+            lock.unlock();
+        }
+        subscribers.getOrDefault(event.owner(), Set.of()).forEach(this::wake);
+    }
+
+    /**
+     * Opens a subscription receiving every change of the current owner after {@code afterVersion}, or only the
+     * changes to come when null.
+     */
+    public SseEmitter subscribe(Long afterVersion) {
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        String owner = TaskOwners.current();
+        Subscriber subscriber = new Subscriber(emitter, owner, afterVersion != null ? afterVersion : latestVersion(owner));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribers.compute(owner, (key, owned) -> {
+            Set<Subscriber> set = owned != null ? owned : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        wake(subscriber);
+        return emitter;
+    }
+
+    protected SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    // Keeps idle connections open through proxies and finds the clients that went away
+    @Scheduled(fixedDelayString = "${todo.changes.heartbeat}", initialDelayString = "${todo.changes.heartbeat}")
+    public void heartbeat() {
+        subscribers.values().forEach(owned -> owned.forEach(subscriber -> senders.execute(() -> {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                close(subscriber);
+            }
+        })));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(owned -> owned.forEach(this::close));
+        senders.shutdown();
+    }
+
+    /**
+     * Version of the current owner's latest change.
+     */
+    public long latestVersion() {
+        return latestVersion(TaskOwners.current());
+    }
+
+    private long latestVersion(String owner) {
+        lock.lock();
+        try {
+            Ring ring = rings.get(owner);
+            return ring != null ? ring.latestVersion() : evictedUpTo.getOrDefault(owner, firstVersion - 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void wake(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                List<TaskChangeDTO> changes = changesAfter(subscriber.owner, subscriber.version);
+                if (changes == null) {
+                    subscriber.emitter.send(SseEmitter.event().name(RESET_EVENT)
+                            .data(Map.of("version", latestVersion(subscriber.owner))));
+                    close(subscriber);
+                    return;
+                }
+                for (TaskChangeDTO change : changes) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.version()))
+                            .name(CHANGE_EVENT)
+                            .data(change));
+                    subscriber.version = change.version();
+                }
+                if (changes.isEmpty()) {
+                    subscriber.draining.set(false);
+                    // A change published between the read and the flag reset would otherwise wait for the next one
+                    if (latestVersion(subscriber.owner) <= subscriber.version
+                            || !subscriber.draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Change feed subscriber went away: {}", e.getMessage());
+            close(subscriber);
+        }
+    }
+
+    /**
+     * The owner's changes after {@code version}, or null when its ring doesn't hold them all anymore (or never did).
+     */
+    private List<TaskChangeDTO> changesAfter(String owner, long version) {
+        lock.lock();
+        try {
+            if (version < firstVersion - 1 || version > latestVersion) {
+                return null;
+            }
+            Ring ring = rings.get(owner);
+            if (ring != null) {
+                return ring.changesAfter(version);
+            }
+            return version < evictedUpTo.getOrDefault(owner, firstVersion - 1) ? null : List.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Under the lock. The ring just written to is the most recent and a single ring fits, so it always stays
+    private void evictIdleRings() {
+        for (Iterator<Map.Entry<String, Ring>> idlest = rings.entrySet().iterator(); entries > maxEntries; ) {
+            Map.Entry<String, Ring> evicted = idlest.next();
+            entries -= evicted.getValue().size();
+            evictedUpTo.put(evicted.getKey(), evicted.getValue().latestVersion());
+            idlest.remove();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.owner, (owner, owned) -> {
+            owned.remove(subscriber);
+            return owned.isEmpty() ? null : owned;
+        });
+    }
+
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    /**
+     * The last changes of one owner, oldest first; guarded by the feed lock. Grows up to its capacity, so an owner
+     * with few changes holds few entries.
+     */
+    private static final class Ring {
+        private final int capacity;
+        private final ArrayDeque<TaskChangeDTO> entries = new ArrayDeque<>();
+        // The changes up to this version aren't all held anymore
+        private long evictedUpTo;
+
+        Ring(int capacity, long evictedUpTo) {
+            this.capacity = capacity;
+            this.evictedUpTo = evictedUpTo;
+        }
+
+        // Returns by how many entries the ring grew
+        int add(TaskChangeDTO change) {
+            entries.addLast(change);
+            if (entries.size() > capacity) {
+                evictedUpTo = entries.removeFirst().version();
+                return 0;
+            }
+            return 1;
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        long latestVersion() {
+            return entries.isEmpty() ? evictedUpTo : entries.getLast().version();
+        }
+
+        List<TaskChangeDTO> changesAfter(long version) {
+            if (version < evictedUpTo) {
+                return null;
+            }
+            List<TaskChangeDTO> changes = new ArrayList<>();
+            for (Iterator<TaskChangeDTO> newestFirst = entries.descendingIterator(); newestFirst.hasNext(); ) {
+                TaskChangeDTO change = newestFirst.next();
+                if (change.version() <= version) {
+                    break;
+                }
+                changes.add(change);
+            }
+            Collections.reverse(changes);
+            return changes;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final String owner;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Only touched by the single drain running for this subscriber
+        private volatile long version;
+
+        Subscriber(SseEmitter emitter, String owner, long version) {
+            this.emitter = emitter;
+            this.owner = owner;
+            this.version = version;
+        }
+    }
+}
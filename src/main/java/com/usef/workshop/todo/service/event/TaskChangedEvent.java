@@ -0,0 +1,38 @@
+package com.usef.workshop.todo.service.event;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.service.TaskOwners;
+
+import java.util.UUID;
+
+/**
+ * Published by TaskService for every task it creates, updates or deletes.
+ * {@code before} is null for a creation and {@code after} is null for a deletion; {@code owner} is the owner
+ * of the task, the one TaskService was working for.
+ *
+ * @author HP
+ **/
+public record TaskChangedEvent(Type type, String owner, TaskDTO before, TaskDTO after) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static TaskChangedEvent created(TaskDTO after) {
+        return new TaskChangedEvent(Type.CREATED, TaskOwners.current(), null, after);
+    }
+
+    public static TaskChangedEvent updated(TaskDTO before, TaskDTO after) {
+        return new TaskChangedEvent(Type.UPDATED, TaskOwners.current(), before, after);
+    }
+
+    public static TaskChangedEvent deleted(TaskDTO before) {
+        return new TaskChangedEvent(Type.DELETED, TaskOwners.current(), before, null);
+    }
+
+    public UUID uuid() {
+        return UUID.fromString(after != null ? after.uuid() : before.uuid());
+    }
+}
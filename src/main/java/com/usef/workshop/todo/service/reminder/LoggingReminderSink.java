@@ -0,0 +1,54 @@
+package com.usef.workshop.todo.service.reminder;
+
+import com.usef.workshop.todo.repo.TaskReminder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Default sink: logs each reminder and keeps the most recent ones in memory.
+ *
+ * @author HP
+ **/
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.reminders.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingReminderSink implements ReminderSink {
+
+    static final int RECENT_SIZE = 100;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<TaskReminder> recent = new ArrayDeque<>(RECENT_SIZE);
+
+    @Override
+    public void deliver(TaskReminder reminder) {
+        log.info("Reminder for {}: task {} ({}) due at {}", reminder.ownerId(), reminder.title(), reminder.uuid(),
+                reminder.reminderDateTime());
+        lock.lock();
+        try {
+            if (recent.size() == RECENT_SIZE) {
+                recent.removeFirst();
+            }
+            recent.addLast(reminder);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The last reminders delivered, oldest first.
+     */
+    public List<TaskReminder> recent() {
+        lock.lock();
+        try {
+            return List.copyOf(recent);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
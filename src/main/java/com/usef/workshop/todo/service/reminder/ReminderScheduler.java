@@ -0,0 +1,272 @@
+package com.usef.workshop.todo.service.reminder;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.repo.TaskReminder;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fires task reminders through the {@link ReminderSink} when their reminderDateTime is reached.
+ * <p>
+ * Only the next window of reminders is held in memory, in a queue ordered by due time. It is filled from
+ * an indexed range query when less than half a window is left, in batches of at most {@code batch-size},
+ * so reminders further in the future stay in the database however many there are. Tasks created, updated or
+ * deleted through TaskService are rescheduled from their {@link TaskChangedEvent} without a query.
+ * <p>
+ * The range query runs without the lock, so task changes aren't held up behind it. The changes delivered while it
+ * runs are kept and merged over its batch, and a batch read before the scheduler restarted (a generation earlier)
+ * is dropped.
+ *
+ * @author HP
+ **/
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "todo.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler {
+
+    private static final Comparator<TaskReminder> DUE_ORDER = Comparator
+            .comparing(TaskReminder::reminderDateTime)
+            .thenComparing(TaskReminder::uuid)
+            .thenComparing(TaskReminder::ownerId);
+
+    private final TaskRepository taskRepository;
+    private final ReminderSink reminderSink;
+    private final Duration window;
+    private final int batchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final NavigableSet<TaskReminder> queue = new TreeSet<>(DUE_ORDER);
+    // Task uuids are only unique per owner
+    private final Map<Key, TaskReminder> scheduled = new HashMap<>();
+
+    // Reminders up to firedUntil have been delivered; every open one due in (firedUntil, loadedUntil] is queued
+    private LocalDateTime firedUntil;
+    private LocalDateTime loadedUntil;
+    // Moved by every start; a load only merges into the generation it was started in
+    private long generation;
+    // The latest change of each task delivered while a load runs, null when none does
+    private Map<Key, TaskChangedEvent> changedDuringLoad;
+
+    public ReminderScheduler(TaskRepository taskRepository,
+                             ReminderSink reminderSink,
+                             @Value("${todo.reminders.window}") Duration window,
+                             @Value("${todo.reminders.batch-size}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.reminderSink = reminderSink;
+        this.window = window;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        start(LocalDateTime.now());
+    }
+
+    /**
+     * Schedules the reminders due after {@code now}; earlier ones are considered missed and are not fired.
+     */
+    public void start(LocalDateTime now) {
+        long started;
+        lock.lock();
+        try {
+            queue.clear();
+            scheduled.clear();
+            firedUntil = now;
+            loadedUntil = now;
+            started = ++generation;
+            changedDuringLoad = new HashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        load(started, now, now.plus(window));
+        lock.lock();
+        try {
+            log.info("Reminder scheduler started with {} reminders due before {}", queue.size(), loadedUntil);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${todo.reminders.tick}", initialDelayString = "${todo.reminders.tick}")
+    public void tick() {
+        dispatchDue(LocalDateTime.now());
+    }
+
+    public void dispatchDue(LocalDateTime now) {
+        long loading = 0;
+        LocalDateTime from = null;
+        lock.lock();
+        try {
+            if (firedUntil == null) {
+                return;
+            }
+            // Only one load at a time; a tick during one fires what is queued already
+            if (changedDuringLoad == null && loadedUntil.isBefore(now.plus(window.dividedBy(2)))) {
+                loading = generation;
+                from = loadedUntil;
+                changedDuringLoad = new HashMap<>();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (from != null) {
+            load(loading, from, now.plus(window));
+        }
+
+        List<TaskReminder> due = new ArrayList<>();
+        lock.lock();
+        try {
+            // A capped batch can leave loadedUntil before now; the rest is loaded and fired on the next ticks
+            LocalDateTime until = now.isBefore(loadedUntil) ? now : loadedUntil;
+            while (!queue.isEmpty() && !queue.first().reminderDateTime().isAfter(until)) {
+                TaskReminder reminder = queue.pollFirst();
+                scheduled.remove(Key.of(reminder));
+                due.add(reminder);
+            }
+            if (until.isAfter(firedUntil)) {
+                firedUntil = until;
+            }
+        } finally {
+            lock.unlock();
+        }
+        due.forEach(this::deliver);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        lock.lock();
+        try {
+            apply(event);
+            if (changedDuringLoad != null) {
+                changedDuringLoad.put(new Key(event.owner(), event.uuid()), event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of reminders currently held in memory.
+     */
+    public int scheduledCount() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the open reminders due in {@code (from, to]} and queues them, unless the scheduler restarted since
+     * {@code loading} began. A task changed while the query ran is queued from its latest change rather than from
+     * the batch, which may have read it before that change committed.
+     */
+    private void load(long loading, LocalDateTime from, LocalDateTime to) {
+        List<TaskReminder> batch = new ArrayList<>();
+        LocalDateTime until = to;
+        try {
+            // The reminders of every owner
+            List<TaskReminder> between = TaskOwners.callAs(TaskOwners.ROOT,
+                    () -> taskRepository.findOpenRemindersBetween(from, to, PageRequest.ofSize(batchSize)));
+            if (between.size() == batchSize) {
+                // Stop the window at the last reminder read, taking every reminder sharing its due time past the limit
+                until = between.get(between.size() - 1).reminderDateTime();
+                LocalDateTime last = until;
+                batch.addAll(TaskOwners.callAs(TaskOwners.ROOT, () -> taskRepository.findOpenRemindersAt(last)));
+            }
+            batch.addAll(between);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                if (loading == generation) {
+                    changedDuringLoad = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            if (loading != generation) {
+                log.debug("Dropped {} reminders loaded before the scheduler restarted", batch.size());
+                return;
+            }
+            Map<Key, TaskChangedEvent> changed = changedDuringLoad;
+            changedDuringLoad = null;
+            loadedUntil = until;
+            batch.stream().filter(reminder -> !changed.containsKey(Key.of(reminder))).forEach(this::schedule);
+            changed.values().forEach(this::apply);
+            log.debug("Loaded {} reminders due before {}, {} changed while loading", batch.size(), until, changed.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs under the lock
+    private void apply(TaskChangedEvent event) {
+        unschedule(new Key(event.owner(), event.uuid()));
+        TaskDTO task = event.after();
+        if (firedUntil == null || task == null || task.reminderDateTime() == null
+                || Boolean.TRUE.equals(task.completed())) {
+            return;
+        }
+        // Reminders beyond the loaded window are picked up by the range query when the window reaches them
+        if (task.reminderDateTime().isAfter(firedUntil) && !task.reminderDateTime().isAfter(loadedUntil)) {
+            schedule(new TaskReminder(event.owner(), event.uuid(), task.title(), task.reminderDateTime()));
+        }
+    }
+
+    private void schedule(TaskReminder reminder) {
+        Key key = Key.of(reminder);
+        unschedule(key);
+        scheduled.put(key, reminder);
+        queue.add(reminder);
+    }
+
+    private void unschedule(Key key) {
+        TaskReminder previous = scheduled.remove(key);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+    }
+
+    private void deliver(TaskReminder reminder) {
+        try {
+            reminderSink.deliver(reminder);
+        } catch (RuntimeException e) {
+            log.warn("Reminder for task {} could not be delivered", reminder.uuid(), e);
+        }
+    }
+
+    private record Key(String owner, UUID uuid) {
+
+        static Key of(TaskReminder reminder) {
+            return new Key(reminder.ownerId(), reminder.uuid());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.usef.workshop.todo.service.reminder;
+
+import com.usef.workshop.todo.repo.TaskReminder;
+
+/**
+ * Where due reminders go (log, push, mail...). Selected with {@code todo.reminders.sink}.
+ * Called on the scheduler thread, so a sink doing slow I/O should hand the reminder off rather than block it.
+ *
+ * @author HP
+ **/
+public interface ReminderSink {
+
+    void deliver(TaskReminder reminder);
+}
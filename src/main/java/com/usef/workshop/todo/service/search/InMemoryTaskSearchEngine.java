@@ -0,0 +1,190 @@
+package com.usef.workshop.todo.service.search;
+
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.repo.TaskSearchDocument;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index, used where PostgreSQL full-text search isn't available (H2 test profile).
+ * Terms are kept sorted so a query term matches every indexed term it prefixes. Each owner has an index of their
+ * own, so a search only ever ranks the tasks of the current owner.
+ *
+ * @author HP
+ **/
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.search.engine", havingValue = "memory")
+public class InMemoryTaskSearchEngine implements TaskSearchEngine {
+
+    static final int TITLE_WEIGHT = 4;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate readTransaction;
+
+    private final Map<String, OwnerIndex> indexes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InMemoryTaskSearchEngine(TaskRepository taskRepository, PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // Bound before the transaction opens its session, so the stream covers every owner
+        TaskOwners.runAs(TaskOwners.ROOT, () -> readTransaction.executeWithoutResult(status -> {
+            try (Stream<TaskSearchDocument> tasks = taskRepository.streamSearchDocuments()) {
+                tasks.forEach(task -> index(task.ownerId(), task.uuid(), task.title(), task.description()));
+            }
+        }));
+        lock.readLock().lock();
+        try {
+            log.info("Search index built with {} tasks of {} owners",
+                    indexes.values().stream().mapToInt(index -> index.termsByTask.size()).sum(), indexes.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<UUID> search(String keyword, int limit) {
+        List<String> terms = SearchTokens.tokenize(keyword);
+        if (terms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        Map<UUID, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            OwnerIndex index = indexes.get(TaskOwners.current());
+            if (index == null) {
+                return List.of();
+            }
+            for (String term : terms) {
+                Map<UUID, Integer> termScores = new HashMap<>();
+                for (Map.Entry<String, Map<UUID, Integer>> entry : index.postings.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+                    // Whole-word matches rank above prefix matches
+                    int bonus = entry.getKey().length() == term.length() ? 2 : 1;
+                    entry.getValue().forEach((uuid, weight) -> termScores.merge(uuid, weight * bonus, Integer::sum));
+                }
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Every term has to match
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((uuid, score) -> score + termScores.get(uuid));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<Map.Entry<UUID, Integer>> byRank = Map.Entry.<UUID, Integer>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<UUID, Integer>> top = new PriorityQueue<>(limit + 1, byRank);
+        for (Map.Entry<UUID, Integer> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<UUID> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(0, top.poll().getKey());
+        }
+        return ranked;
+    }
+
+    /**
+     * Applies a task change once it has committed, so a write that rolls back never reaches the index.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.type() == TaskChangedEvent.Type.DELETED) {
+            remove(event.owner(), event.uuid());
+        } else {
+            index(event.owner(), event.uuid(), event.after().title(), event.after().description());
+        }
+    }
+
+    private void remove(String owner, UUID uuid) {
+        lock.writeLock().lock();
+        try {
+            OwnerIndex index = indexes.get(owner);
+            if (index != null) {
+                index.remove(uuid);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(String owner, UUID uuid, String title, String description) {
+        Map<String, Integer> weights = new HashMap<>();
+        SearchTokens.tokenize(title).forEach(term -> weights.merge(term, TITLE_WEIGHT, Integer::sum));
+        SearchTokens.tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            OwnerIndex index = indexes.computeIfAbsent(owner, key -> new OwnerIndex());
+            index.remove(uuid);
+            weights.forEach((term, weight) -> index.postings.computeIfAbsent(term, t -> new HashMap<>()).put(uuid, weight));
+            index.termsByTask.put(uuid, new HashSet<>(weights.keySet()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * One owner's postings; guarded by the engine lock.
+     */
+    private static final class OwnerIndex {
+        private final NavigableMap<String, Map<UUID, Integer>> postings = new TreeMap<>();
+        private final Map<UUID, Set<String>> termsByTask = new HashMap<>();
+
+        void remove(UUID uuid) {
+            Set<String> terms = termsByTask.remove(uuid);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<UUID, Integer> taskWeights = postings.get(term);
+                if (taskWeights != null) {
+                    taskWeights.remove(uuid);
+                    if (taskWeights.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.usef.workshop.todo.service.search;
+
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.service.TaskOwners;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search on the generated {@code tasks.search_vector} column and its GIN index.
+ * The column is maintained by PostgreSQL itself, so there is no index to keep up to date.
+ *
+ * @author HP
+ **/
+@Component
+@ConditionalOnProperty(name = "todo.search.engine", havingValue = "postgres", matchIfMissing = true)
+@RequiredArgsConstructor
+public class PostgresTaskSearchEngine implements TaskSearchEngine {
+
+    private final TaskRepository taskRepository;
+
+    @Override
+    public List<UUID> search(String keyword, int limit) {
+        String tsQuery = toTsQuery(keyword);
+        return tsQuery == null ? List.of() : taskRepository.searchUuidsByTsQuery(TaskOwners.current(), tsQuery, limit);
+    }
+
+    /**
+     * Matches inside the task query itself. search_vector isn't mapped on Task, so the predicate goes through
+     * Hibernate's sql() function; the GIN index serves it like in {@link #search}. Every match is admitted,
+     * so the filter is never truncated.
+     */
+    @Override
+    public KeywordFilter matching(String keyword) {
+        String tsQuery = toTsQuery(keyword);
+        Specification<Task> specification = tsQuery == null
+                ? (task, query, cb) -> cb.disjunction()
+                : (task, query, cb) -> cb.isTrue(cb.function("sql", Boolean.class,
+                        cb.literal("search_vector @@ to_tsquery('simple', ?)"), cb.literal(tsQuery)));
+        return new KeywordFilter(specification, false);
+    }
+
+    private static String toTsQuery(String keyword) {
+        List<String> terms = SearchTokens.tokenize(keyword);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        // Terms only contain letters and digits, so they can't carry tsquery operators
+        return terms.stream().map(term -> term + ":*").collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,47 @@
+package com.usef.workshop.todo.service.search;
+
+import com.usef.workshop.todo.entity.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ranked keyword search over task titles and descriptions.
+ * Each query term matches as a prefix so the engine can serve typeahead. Engines that keep an index of their own
+ * maintain it from committed TaskChangedEvents.
+ *
+ * @author HP
+ **/
+public interface TaskSearchEngine {
+
+    /**
+     * Most matches {@link #matching} turns into a uuid filter when the engine can't filter in SQL. Matches ranked
+     * below it are left out of the query, which the filter reports as {@link KeywordFilter#truncated}.
+     */
+    int MAX_FILTER_MATCHES = 1000;
+
+    /**
+     * Returns the uuids of the best matching tasks, highest rank first.
+     */
+    List<UUID> search(String keyword, int limit);
+
+    /**
+     * Restricts a task query to the tasks matching {@code keyword}, so a keyword composes with other filters.
+     * By default the best {@link #MAX_FILTER_MATCHES} results of {@link #search} become a uuid IN list, and the
+     * filter is truncated when the keyword matched more tasks than that.
+     */
+    default KeywordFilter matching(String keyword) {
+        List<UUID> matches = search(keyword, MAX_FILTER_MATCHES + 1);
+        boolean truncated = matches.size() > MAX_FILTER_MATCHES;
+        List<UUID> uuids = truncated ? matches.subList(0, MAX_FILTER_MATCHES) : matches;
+        return new KeywordFilter((task, query, cb) -> uuids.isEmpty() ? cb.disjunction() : task.get("uuid").in(uuids),
+                truncated);
+    }
+
+    /**
+     * A keyword as a task query filter; {@code truncated} means it only admits the best ranked of its matches.
+     */
+    record KeywordFilter(Specification<Task> specification, boolean truncated) {
+    }
+}
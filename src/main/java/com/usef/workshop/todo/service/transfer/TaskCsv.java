@@ -0,0 +1,106 @@
+package com.usef.workshop.todo.service.transfer;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.exception.InvalidTaskException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * CSV rows of the task import and export: one column per TaskDTO field, ISO dates, empty cells for nulls.
+ * Imports find columns by header name, in any order; createdAt, updatedAt and version are exported but
+ * ignored on import, since they belong to the database the task is written to.
+ *
+ * @author HP
+ **/
+public final class TaskCsv {
+
+    public static final List<String> COLUMNS = List.of("uuid", "title", "description", "priority", "categoryName",
+            "completed", "status", "dueDate", "reminderDateTime", "createdAt", "updatedAt", "version");
+
+    private TaskCsv() {
+    }
+
+    public static String[] toRow(TaskDTO task) {
+        return new String[]{
+                text(task.uuid()),
+                text(task.title()),
+                text(task.description()),
+                text(task.priority()),
+                text(task.categoryName()),
+                text(task.completed()),
+                text(task.status()),
+                text(task.dueDate()),
+                text(task.reminderDateTime()),
+                text(task.createdAt()),
+                text(task.updatedAt()),
+                text(task.version())
+        };
+    }
+
+    /**
+     * Column index by name, rejecting the headers that are not task fields.
+     */
+    static Map<String, Integer> columnIndexes(String[] header) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            String name = header[i].trim();
+            if (!COLUMNS.contains(name) || indexes.put(name, i) != null) {
+                throw new InvalidTaskException("Unknown or repeated CSV column: " + name);
+            }
+        }
+        return indexes;
+    }
+
+    static TaskDTO fromRow(Map<String, Integer> columns, String[] row) {
+        if (row.length > columns.size()) {
+            throw new InvalidTaskException("Row has " + row.length + " cells, the header " + columns.size());
+        }
+        return TaskDTO.builder()
+                .uuid(cell(columns, row, "uuid"))
+                .title(cell(columns, row, "title"))
+                .description(cell(columns, row, "description"))
+                .priority(cell(columns, row, "priority"))
+                .categoryName(cell(columns, row, "categoryName"))
+                .completed(parse(columns, row, "completed", TaskCsv::parseBoolean))
+                .status(cell(columns, row, "status"))
+                .dueDate(parse(columns, row, "dueDate", LocalDate::parse))
+                .reminderDateTime(parse(columns, row, "reminderDateTime", LocalDateTime::parse))
+                .build();
+    }
+
+    // Null array elements would be skipped rather than written as empty cells
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String cell(Map<String, Integer> columns, String[] row, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= row.length || row[index].isEmpty()) {
+            return null;
+        }
+        return row[index];
+    }
+
+    private static <T> T parse(Map<String, Integer> columns, String[] row, String name, Function<String, T> parser) {
+        String text = cell(columns, row, name);
+        try {
+            return text == null ? null : parser.apply(text.trim());
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new InvalidTaskException("Invalid value for " + name + ": " + text);
+        }
+    }
+
+    private static Boolean parseBoolean(String text) {
+        return switch (text.toLowerCase()) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException(text);
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.usef.workshop.todo.service.transfer;
+
+import com.usef.workshop.todo.exception.InvalidTaskException;
+
+/**
+ * File formats of the task import and export.
+ *
+ * @author HP
+ **/
+public enum TaskFileFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    TaskFileFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static TaskFileFormat fromExtension(String extension) {
+        for (TaskFileFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(extension)) {
+                return format;
+            }
+        }
+        throw new InvalidTaskException("Unsupported format: " + extension);
+    }
+
+    public static TaskFileFormat fromMediaType(String mediaType) {
+        for (TaskFileFormat format : values()) {
+            if (mediaType != null && mediaType.toLowerCase().startsWith(format.mediaType)) {
+                return format;
+            }
+        }
+        throw new InvalidTaskException("Unsupported content type: " + mediaType);
+    }
+}
@@ -0,0 +1,102 @@
+package com.usef.workshop.todo.service.transfer;
+
+import com.usef.workshop.todo.controller.dto.TaskImportJobDTO;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one import: the spooled upload it reads, the NDJSON file its row errors go to, and its progress,
+ * updated by the job thread and read by the status requests. A job imports for, and is only visible to, the owner
+ * that submitted it.
+ *
+ * @author HP
+ **/
+public final class TaskImportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String owner;
+    private final TaskFileFormat format;
+    private final Path upload;
+    private final Path errors;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    public TaskImportJob(String owner, TaskFileFormat format, Path upload, Path errors) {
+        this.owner = owner;
+        this.format = format;
+        this.upload = upload;
+        this.errors = errors;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String owner() {
+        return owner;
+    }
+
+    public TaskFileFormat format() {
+        return format;
+    }
+
+    public Path upload() {
+        return upload;
+    }
+
+    public Path errors() {
+        return errors;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public LocalDateTime finishedAt() {
+        return finishedAt;
+    }
+
+    public void start() {
+        status = Status.RUNNING;
+    }
+
+    public void recordCreated() {
+        processed.incrementAndGet();
+        created.incrementAndGet();
+    }
+
+    public void recordFailed() {
+        processed.incrementAndGet();
+        failed.incrementAndGet();
+    }
+
+    public void finish(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = error == null ? Status.COMPLETED : Status.FAILED;
+    }
+
+    public TaskImportJobDTO toDTO() {
+        return TaskImportJobDTO.builder()
+                .id(id)
+                .format(format.name())
+                .status(status.name())
+                .processed(processed.get())
+                .created(created.get())
+                .failed(failed.get())
+                .submittedAt(submittedAt)
+                .finishedAt(finishedAt)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.usef.workshop.todo.service.transfer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.exception.InvalidTaskException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Reads an import file one row at a time, so memory doesn't grow with the file. A row that can't be turned into
+ * a task comes back with an error instead of a task; only a file that can't be read any further (broken CSV
+ * quoting, I/O failure) throws.
+ *
+ * @author HP
+ **/
+public interface TaskImportReader extends Closeable {
+
+    /**
+     * @param number 1-based position of the row among the data rows (NDJSON: the line number)
+     */
+    record Row(long number, TaskDTO task, String error) {
+    }
+
+    /**
+     * The next row, or null at the end of the file.
+     */
+    Row next() throws IOException;
+
+    static TaskImportReader open(TaskFileFormat format, Path file, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            return switch (format) {
+                case CSV -> new CsvReader(reader);
+                case NDJSON -> new NdjsonReader(reader, objectMapper);
+            };
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    final class NdjsonReader implements TaskImportReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long lineNumber;
+
+        NdjsonReader(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return new Row(lineNumber, objectMapper.readValue(line, TaskDTO.class), null);
+            } catch (JsonProcessingException e) {
+                return new Row(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    final class CsvReader implements TaskImportReader {
+        private final MappingIterator<String[]> rows;
+        private final Map<String, Integer> columns;
+        private long rowNumber;
+
+        CsvReader(BufferedReader reader) throws IOException {
+            this.rows = new CsvMapper()
+                    .readerFor(String[].class)
+                    .with(CsvParser.Feature.WRAP_AS_ARRAY)
+                    .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+                    .readValues(reader);
+            if (!rows.hasNextValue()) {
+                throw new InvalidTaskException("CSV file has no header row");
+            }
+            this.columns = TaskCsv.columnIndexes(rows.nextValue());
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (!rows.hasNextValue()) {
+                return null;
+            }
+            String[] row = rows.nextValue();
+            rowNumber++;
+            try {
+                return new Row(rowNumber, TaskCsv.fromRow(columns, row), null);
+            } catch (InvalidTaskException e) {
+                return new Row(rowNumber, null, e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+    }
+}
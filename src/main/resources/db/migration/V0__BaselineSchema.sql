@@ -0,0 +1,29 @@
+-- Schema as Hibernate's ddl-auto created it before V1, so a fresh database is built by Flyway alone.
+-- Idempotent: installations that already ran V1..V4 apply it out of order as a no-op.
+CREATE SEQUENCE IF NOT EXISTS cat_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS task_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS categories (
+    id   BIGINT       NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT categories_pkey PRIMARY KEY (id),
+    CONSTRAINT categories_name_key UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id                 BIGINT        NOT NULL,
+    uuid               UUID          NOT NULL,
+    title              VARCHAR(255)  NOT NULL,
+    description        VARCHAR(1000),
+    priority           VARCHAR(255)  NOT NULL CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH')),
+    category_id        BIGINT        NOT NULL,
+    due_date           DATE,
+    reminder_date_time TIMESTAMP(6),
+    status             VARCHAR(255)  NOT NULL CHECK (status IN ('TODO', 'IN_PROGRESS', 'DONE')),
+    created_at         TIMESTAMP(6)  NOT NULL,
+    updated_at         TIMESTAMP(6),
+    CONSTRAINT tasks_pkey PRIMARY KEY (id),
+    CONSTRAINT tasks_uuid_key UNIQUE (uuid),
+    CONSTRAINT tasks_title_key UNIQUE (title),
+    CONSTRAINT fk_tasks_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
@@ -0,0 +1,23 @@
+-- Priority and status sort by rank (LOW < MEDIUM < HIGH, TODO < IN_PROGRESS < DONE), which a CASE over the
+-- enum names computes per row and no index can serve. The ranks are stored next to them instead (Task keeps
+-- them in step) and indexed with the uuid tiebreaker, so a keyset page by either seeks instead of sorting.
+ALTER TABLE tasks ADD COLUMN priority_rank SMALLINT;
+ALTER TABLE tasks ADD COLUMN status_rank SMALLINT;
+
+UPDATE tasks
+SET priority_rank = CASE priority WHEN 'LOW' THEN 0 WHEN 'MEDIUM' THEN 1 WHEN 'HIGH' THEN 2 END,
+    status_rank   = CASE status WHEN 'TODO' THEN 0 WHEN 'IN_PROGRESS' THEN 1 WHEN 'DONE' THEN 2 END;
+
+ALTER TABLE tasks ALTER COLUMN priority_rank SET NOT NULL;
+ALTER TABLE tasks ALTER COLUMN status_rank SET NOT NULL;
+
+-- A write that bypasses Task must still agree with the enum column it ranks
+ALTER TABLE tasks ADD CONSTRAINT tasks_priority_rank_check
+    CHECK (priority_rank = CASE priority WHEN 'LOW' THEN 0 WHEN 'MEDIUM' THEN 1 WHEN 'HIGH' THEN 2 END);
+ALTER TABLE tasks ADD CONSTRAINT tasks_status_rank_check
+    CHECK (status_rank = CASE status WHEN 'TODO' THEN 0 WHEN 'IN_PROGRESS' THEN 1 WHEN 'DONE' THEN 2 END);
+
+CREATE INDEX idx_tasks_owner_priority_rank_uuid ON tasks (owner_id, priority_rank, uuid);
+CREATE INDEX idx_tasks_owner_status_rank_uuid ON tasks (owner_id, status_rank, uuid);
+
+ANALYZE tasks;
@@ -0,0 +1,2 @@
+-- Task ids are allocated 50 at a time (allocationSize = 50 on Task.id)
+ALTER SEQUENCE IF EXISTS task_seq INCREMENT BY 50;
@@ -0,0 +1,2 @@
+-- Category ids are allocated 10 at a time (allocationSize = 10 on Category.id)
+ALTER SEQUENCE IF EXISTS cat_seq INCREMENT BY 10;
@@ -0,0 +1,12 @@
+-- Indexes behind the TaskRepository filters and orderings
+-- findByCategory_Name / findTaskDTOsByCategoryName: category filter ordered by creation
+CREATE INDEX IF NOT EXISTS idx_tasks_category_created_at ON tasks (category_id, created_at);
+-- findByStatus, and status filters with a due-date range
+CREATE INDEX IF NOT EXISTS idx_tasks_status_due_date ON tasks (status, due_date);
+-- findByDueDate without a status
+CREATE INDEX IF NOT EXISTS idx_tasks_due_date ON tasks (due_date);
+-- Keyset pages and streams ordered by (created_at, uuid)
+CREATE INDEX IF NOT EXISTS idx_tasks_created_at_uuid ON tasks (created_at, uuid);
+-- Upcoming reminders
+CREATE INDEX IF NOT EXISTS idx_tasks_reminder_date_time ON tasks (reminder_date_time);
+CREATE INDEX IF NOT EXISTS idx_tasks_completed ON tasks (completed);
@@ -0,0 +1,11 @@
+-- Delta sync (GET /api/v1/tasks/sync): updated_at is the watermark, set on insert as well as on update
+UPDATE tasks SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE tasks ALTER COLUMN updated_at SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_tasks_updated_at_uuid ON tasks (updated_at, uuid);
+
+-- Deleted tasks, kept for todo.sync.tombstone-retention so clients syncing within it learn about them
+CREATE TABLE IF NOT EXISTS task_tombstones (
+    uuid       UUID         NOT NULL PRIMARY KEY,
+    deleted_at TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_deleted_at ON task_tombstones (deleted_at);
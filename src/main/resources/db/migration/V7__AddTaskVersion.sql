@@ -0,0 +1,2 @@
+-- Optimistic locking version, also the task's ETag
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,67 @@
+-- Per-owner tasks: every task belongs to an owner (X-Owner-Id), titles are unique per owner, and tasks is
+-- hash partitioned on owner_id so a user's queries are pruned to the one partition holding their tasks.
+-- Existing tasks and tombstones go to the 'default' owner (TaskOwners.DEFAULT).
+-- A partitioned table can't be made from an existing one, so the rows are copied into a new table.
+LOCK TABLE tasks IN ACCESS EXCLUSIVE MODE;
+
+CREATE TABLE tasks_by_owner (
+    owner_id           VARCHAR(64)   NOT NULL,
+    id                 BIGINT        NOT NULL,
+    uuid               UUID          NOT NULL,
+    title              VARCHAR(255)  NOT NULL,
+    description        VARCHAR(1000),
+    priority           VARCHAR(255)  NOT NULL CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH')),
+    category_id        BIGINT        NOT NULL,
+    completed          BOOLEAN,
+    due_date           DATE,
+    reminder_date_time TIMESTAMP(6),
+    status             VARCHAR(255)  NOT NULL CHECK (status IN ('TODO', 'IN_PROGRESS', 'DONE')),
+    created_at         TIMESTAMP(6)  NOT NULL,
+    updated_at         TIMESTAMP(6)  NOT NULL,
+    version            BIGINT        NOT NULL DEFAULT 0,
+    search_vector      tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED
+) PARTITION BY HASH (owner_id);
+
+-- 16 partitions; a partition can later be split by detaching it and attaching MODULUS 32 halves
+DO $$
+BEGIN
+    FOR remainder IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE tasks_p%s PARTITION OF tasks_by_owner FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+                       remainder, remainder);
+    END LOOP;
+END $$;
+
+INSERT INTO tasks_by_owner (owner_id, id, uuid, title, description, priority, category_id, completed, due_date,
+                            reminder_date_time, status, created_at, updated_at, version)
+SELECT 'default', id, uuid, title, description, priority, category_id, completed, due_date,
+       reminder_date_time, status, created_at, updated_at, version
+FROM tasks;
+
+DROP TABLE tasks;
+ALTER TABLE tasks_by_owner RENAME TO tasks;
+
+-- Unique constraints on a partitioned table have to include the partition key
+ALTER TABLE tasks ADD CONSTRAINT tasks_pkey PRIMARY KEY (owner_id, id);
+ALTER TABLE tasks ADD CONSTRAINT tasks_owner_id_uuid_key UNIQUE (owner_id, uuid);
+ALTER TABLE tasks ADD CONSTRAINT tasks_owner_id_title_key UNIQUE (owner_id, title);
+ALTER TABLE tasks ADD CONSTRAINT fk_tasks_category FOREIGN KEY (category_id) REFERENCES categories (id);
+
+-- V5/V6 indexes, now led by owner_id. Created on the parent, so every partition gets its own
+CREATE INDEX idx_tasks_owner_category_created_at ON tasks (owner_id, category_id, created_at);
+CREATE INDEX idx_tasks_owner_status_due_date ON tasks (owner_id, status, due_date);
+CREATE INDEX idx_tasks_owner_due_date ON tasks (owner_id, due_date);
+CREATE INDEX idx_tasks_owner_created_at_uuid ON tasks (owner_id, created_at, uuid);
+CREATE INDEX idx_tasks_owner_updated_at_uuid ON tasks (owner_id, updated_at, uuid);
+CREATE INDEX idx_tasks_owner_completed ON tasks (owner_id, completed);
+-- The reminder scheduler reads every owner's reminders by time
+CREATE INDEX idx_tasks_reminder_date_time ON tasks (reminder_date_time);
+CREATE INDEX idx_tasks_search_vector ON tasks USING GIN (search_vector);
+
+ALTER TABLE task_tombstones ADD COLUMN owner_id VARCHAR(64) NOT NULL DEFAULT 'default';
+ALTER TABLE task_tombstones ALTER COLUMN owner_id DROP DEFAULT;
+CREATE INDEX idx_task_tombstones_owner_deleted_at ON task_tombstones (owner_id, deleted_at);
+
+ANALYZE tasks;
@@ -0,0 +1,4 @@
+-- Task uuids are unique per owner (tasks_owner_id_uuid_key), so tombstones are keyed the same way: two owners
+-- deleting tasks with the same uuid must not collide on the tombstone of the first
+ALTER TABLE task_tombstones DROP CONSTRAINT task_tombstones_pkey;
+ALTER TABLE task_tombstones ADD CONSTRAINT task_tombstones_pkey PRIMARY KEY (owner_id, uuid);
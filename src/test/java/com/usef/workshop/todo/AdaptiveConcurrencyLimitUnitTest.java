@@ -0,0 +1,56 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.config.limit.AdaptiveConcurrencyLimit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitUnitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    @DisplayName("Should refuse requests over the limit and admit them again once others finish")
+    void tryAcquire_WhenOverLimit_Refuses() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, Duration.ofHours(1), 2);
+
+        // Act
+        boolean expensive = limit.tryAcquire(8);
+        boolean cheap = limit.tryAcquire(2);
+        boolean refused = limit.tryAcquire(1);
+        limit.release(2, FAST);
+        boolean afterRelease = limit.tryAcquire(1);
+
+        // Assert
+        assertThat(expensive).isTrue();
+        assertThat(cheap).isTrue();
+        assertThat(refused).isFalse();
+        assertThat(afterRelease).isTrue();
+        assertThat(limit.inFlight()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should lower the limit when latency rises and raise it while the limit is used")
+    void release_WhenLatencyChanges_AdjustsLimit() {
+        // Arrange: every release closes a window
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, Duration.ZERO, 2);
+
+        // Act
+        limit.tryAcquire(20);
+        limit.release(20, FAST);
+        int whileUsed = limit.limit();
+        limit.tryAcquire(1);
+        limit.release(1, SLOW);
+        int afterSlow = limit.limit();
+
+        // Assert
+        assertThat(whileUsed).isGreaterThan(20);
+        assertThat(afterSlow).isLessThan(whileUsed).isGreaterThanOrEqualTo(5);
+    }
+}
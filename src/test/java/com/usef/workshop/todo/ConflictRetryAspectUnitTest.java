@@ -0,0 +1,105 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.config.ConflictRetryAspect;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.exception.TaskVersionMismatchException;
+import com.usef.workshop.todo.service.RetryOnConflict;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConflictRetryAspectUnitTest {
+
+    @Test
+    @DisplayName("Should run a write again until it stops losing its optimistic lock")
+    void retry_WhenLockLostTwice_SucceedsOnThirdRun() {
+        // Arrange
+        Writer writer = proxy(new Writer(2), 3);
+
+        // Act
+        String result = writer.write();
+
+        // Assert
+        assertThat(result).isEqualTo("saved");
+        assertThat(writer.runs()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should give up with the conflict once the retries are used up")
+    void retry_WhenLockAlwaysLost_ThrowsAfterRetries() {
+        // Arrange
+        Writer writer = proxy(new Writer(Integer.MAX_VALUE), 2);
+
+        // Act & Assert
+        assertThatThrownBy(writer::write).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(writer.runs()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should answer a conflict with 412 without running the write again when it's guarded by If-Match")
+    void retry_WhenIfMatchSet_FailsPreconditionWithoutRetry() {
+        // Arrange
+        Writer writer = proxy(new Writer(1), 3);
+
+        // Act & Assert
+        assertThatThrownBy(() -> writer.update(4L)).isInstanceOf(TaskVersionMismatchException.class);
+        assertThat(writer.runs()).isEqualTo(1);
+        assertThat(writer.update(null)).isEqualTo("saved");
+    }
+
+    @Test
+    @DisplayName("Should run a write without If-Match again")
+    void retry_WhenIfMatchMissing_Retries() {
+        // Arrange
+        Writer writer = proxy(new Writer(1), 3);
+
+        // Act
+        String result = writer.update(null);
+
+        // Assert
+        assertThat(result).isEqualTo("saved");
+        assertThat(writer.runs()).isEqualTo(2);
+    }
+
+    private static Writer proxy(Writer target, int retries) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ConflictRetryAspect(retries, Duration.ZERO, new SimpleMeterRegistry()));
+        return factory.getProxy();
+    }
+
+    static class Writer {
+
+        private final int conflicts;
+        private final AtomicInteger runs = new AtomicInteger();
+
+        Writer(int conflicts) {
+            this.conflicts = conflicts;
+        }
+
+        @RetryOnConflict
+        public String write() {
+            if (runs.incrementAndGet() <= conflicts) {
+                throw new ObjectOptimisticLockingFailureException(Task.class, 1L);
+            }
+            return "saved";
+        }
+
+        @RetryOnConflict
+        public String update(@RetryOnConflict.IfMatch Long expectedVersion) {
+            return write();
+        }
+
+        public int runs() {
+            return runs.get();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.facade.IdempotentRequests;
+import com.usef.workshop.todo.exception.IdempotencyKeyMismatchException;
+import com.usef.workshop.todo.service.TaskOwners;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotentRequestsUnitTest {
+
+    private static final String KEY = "3f0c9a52-create-1";
+
+    private IdempotentRequests idempotentRequests;
+    private AtomicInteger creates;
+
+    @BeforeEach
+    void setUp() {
+        idempotentRequests = new IdempotentRequests(Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+        creates = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should answer a retry with the same key with the first response without creating again")
+    void execute_WhenKeyRepeated_ReplaysFirstResponse() {
+        // Arrange
+        TaskDTO request = TaskDTO.builder().title("Buy groceries").build();
+
+        // Act
+        ResponseEntity<String> first = create("alice", request);
+        ResponseEntity<String> retry = create("alice", request);
+        ResponseEntity<String> otherOwner = create("bob", request);
+
+        // Assert
+        assertThat(retry.getStatusCode().value()).isEqualTo(201);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(retry.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        assertThat(retry.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(otherOwner.getHeaders().containsKey("Idempotent-Replayed")).isFalse();
+        assertThat(creates).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should refuse a key reused for a different request")
+    void execute_WhenKeyReusedWithOtherBody_ThrowsException() {
+        // Arrange
+        create("alice", TaskDTO.builder().title("Buy groceries").build());
+
+        // Act & Assert
+        assertThatThrownBy(() -> create("alice", TaskDTO.builder().title("Walk the dog").build()))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(creates).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should run a retry again when the first request with the key failed")
+    void execute_WhenFirstFailed_RunsRetry() {
+        // Arrange
+        TaskDTO request = TaskDTO.builder().title("Buy groceries").build();
+        assertThatThrownBy(() -> TaskOwners.callAs("alice", () -> idempotentRequests.execute(KEY, request, () -> {
+            throw new IllegalStateException("database down");
+        }))).isInstanceOf(IllegalStateException.class);
+
+        // Act
+        ResponseEntity<String> retry = create("alice", request);
+
+        // Assert
+        assertThat(retry.getHeaders().containsKey("Idempotent-Replayed")).isFalse();
+        assertThat(creates).hasValue(1);
+    }
+
+    private ResponseEntity<String> create(String owner, TaskDTO request) {
+        return TaskOwners.callAs(owner, () -> idempotentRequests.execute(KEY, request, () -> {
+            int created = creates.incrementAndGet();
+            return ResponseEntity.status(201).eTag("\"" + created + "\"").body("task-" + created);
+        }));
+    }
+}
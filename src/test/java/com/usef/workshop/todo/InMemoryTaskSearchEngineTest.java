@@ -0,0 +1,128 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import com.usef.workshop.todo.service.search.InMemoryTaskSearchEngine;
+import com.usef.workshop.todo.service.search.TaskSearchEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit Test for the in-process search index used by the H2 profile.
+ */
+class InMemoryTaskSearchEngineTest {
+
+    private InMemoryTaskSearchEngine engine;
+
+    private final UUID report = UUID.randomUUID();
+    private final UUID groceries = UUID.randomUUID();
+    private final UUID reading = UUID.randomUUID();
+
+    private TaskOwners.Binding owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = TaskOwners.bind(TaskOwners.DEFAULT);
+        engine = new InMemoryTaskSearchEngine(null, null);
+        engine.onTaskChanged(created(report, "Finish project report", "Complete the final report and send it to the manager."));
+        engine.onTaskChanged(created(groceries, "Buy groceries", "Milk, eggs, bread, fruits."));
+        engine.onTaskChanged(created(reading, "Read 'Clean Code'", "Read chapters 3 and 4 before the project review."));
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.close();
+    }
+
+    @Test
+    @DisplayName("Should match terms by prefix for typeahead")
+    void search_WithPrefix_ReturnsMatches() {
+        assertThat(engine.search("groc", 10)).containsExactly(groceries);
+    }
+
+    @Test
+    @DisplayName("Should rank title matches above description matches")
+    void search_RanksTitleFirst() {
+        assertThat(engine.search("project", 10)).containsExactly(report, reading);
+    }
+
+    @Test
+    @DisplayName("Should require every term and honour the limit")
+    void search_WithSeveralTerms_IntersectsAndLimits() {
+        assertThat(engine.search("read project", 10)).containsExactly(reading);
+        assertThat(engine.search("project", 1)).containsExactly(report);
+    }
+
+    @Test
+    @DisplayName("Should forget removed and re-indexed content")
+    void remove_And_Reindex_UpdateIndex() {
+        engine.onTaskChanged(TaskChangedEvent.deleted(task(groceries, "Buy groceries", null)));
+        engine.onTaskChanged(TaskChangedEvent.updated(task(report, "Finish project report", null),
+                task(report, "Weekly status", "Nothing left")));
+
+        assertThat(engine.search("groceries", 10)).isEmpty();
+        assertThat(engine.search("report", 10)).isEmpty();
+        assertThat(engine.search("status", 10)).containsExactly(report);
+    }
+
+    @Test
+    @DisplayName("Should only search the tasks of the current owner")
+    void search_AsAnotherOwner_IgnoresTheirTasks() {
+        // Arrange
+        UUID alicesGroceries = UUID.randomUUID();
+        TaskOwners.runAs("alice", () -> engine.onTaskChanged(created(alicesGroceries, "Buy groceries", "For alice")));
+
+        // Act & Assert
+        assertThat(TaskOwners.callAs("alice", () -> engine.search("groceries", 10))).containsExactly(alicesGroceries);
+        assertThat(TaskOwners.callAs("bob", () -> engine.search("groceries", 10))).isEmpty();
+        assertThat(engine.search("groceries", 10)).containsExactly(groceries);
+    }
+
+    @Test
+    @DisplayName("Should apply a change to the index of the owner it was made for")
+    void onTaskChanged_IndexesUnderEventOwner() {
+        // Arrange
+        UUID alicesReport = UUID.randomUUID();
+        TaskChangedEvent event = new TaskChangedEvent(TaskChangedEvent.Type.CREATED, "alice", null,
+                task(alicesReport, "Quarterly report", null));
+
+        // Act
+        engine.onTaskChanged(event);
+
+        // Assert
+        assertThat(TaskOwners.callAs("alice", () -> engine.search("quarterly", 10))).containsExactly(alicesReport);
+        assertThat(engine.search("quarterly", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should report a keyword filter as truncated when it matches more tasks than it admits")
+    void matching_WithMoreMatchesThanAdmitted_IsTruncated() {
+        // Arrange
+        for (int i = 0; i <= TaskSearchEngine.MAX_FILTER_MATCHES; i++) {
+            engine.onTaskChanged(created(UUID.randomUUID(), "Sprint item " + i, null));
+        }
+
+        // Act
+        TaskSearchEngine.KeywordFilter sprint = engine.matching("sprint");
+        TaskSearchEngine.KeywordFilter project = engine.matching("project");
+
+        // Assert
+        assertThat(sprint.truncated()).isTrue();
+        assertThat(project.truncated()).isFalse();
+    }
+
+    private static TaskChangedEvent created(UUID uuid, String title, String description) {
+        return TaskChangedEvent.created(task(uuid, title, description));
+    }
+
+    private static TaskDTO task(UUID uuid, String title, String description) {
+        return TaskDTO.builder().uuid(uuid.toString()).title(title).description(description).build();
+    }
+}
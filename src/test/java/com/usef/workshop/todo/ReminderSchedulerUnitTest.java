@@ -0,0 +1,167 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.repo.TaskReminder;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import com.usef.workshop.todo.service.reminder.LoggingReminderSink;
+import com.usef.workshop.todo.service.reminder.ReminderScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderSchedulerUnitTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 7, 1, 9, 0);
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private LoggingReminderSink sink;
+    private ReminderScheduler scheduler;
+
+    private TaskOwners.Binding owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = TaskOwners.bind(TaskOwners.DEFAULT);
+        sink = new LoggingReminderSink();
+        scheduler = new ReminderScheduler(taskRepository, sink, Duration.ofHours(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.close();
+    }
+
+    @Test
+    @DisplayName("Should fire reminders of the loaded window in due order and follow task changes")
+    void dispatchDue_FiresDueRemindersAndFollowsChanges() {
+        // Arrange
+        TaskReminder first = reminder("First", NOW.plusMinutes(10));
+        TaskReminder deleted = reminder("Deleted", NOW.plusMinutes(20));
+        when(taskRepository.findOpenRemindersBetween(NOW, NOW.plusHours(1), PageRequest.ofSize(2)))
+                .thenReturn(List.of(first));
+        scheduler.start(NOW);
+
+        // Act
+        TaskDTO created = task(deleted);
+        scheduler.onTaskChanged(TaskChangedEvent.created(created));
+        scheduler.onTaskChanged(TaskChangedEvent.created(task(reminder("Later", NOW.plusHours(3)))));
+        TaskReminder moved = reminder("Moved", NOW.plusMinutes(5));
+        scheduler.onTaskChanged(TaskChangedEvent.created(task(moved)));
+        scheduler.onTaskChanged(TaskChangedEvent.updated(task(moved), task(
+                new TaskReminder(TaskOwners.DEFAULT, moved.uuid(), "Moved", NOW.plusMinutes(15)))));
+        scheduler.onTaskChanged(TaskChangedEvent.deleted(created));
+        scheduler.dispatchDue(NOW.plusMinutes(16));
+
+        // Assert
+        assertThat(sink.recent()).extracting(TaskReminder::title).containsExactly("First", "Moved");
+        assertThat(scheduler.scheduledCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should shorten the window to a full batch and load the rest on later ticks")
+    void dispatchDue_WhenBatchIsFull_LoadsInSteps() {
+        // Arrange
+        TaskReminder first = reminder("First", NOW.plusMinutes(1));
+        TaskReminder second = reminder("Second", NOW.plusMinutes(2));
+        TaskReminder sameTime = reminder("Same time", NOW.plusMinutes(2));
+        TaskReminder third = reminder("Third", NOW.plusMinutes(3));
+        when(taskRepository.findOpenRemindersBetween(NOW, NOW.plusHours(1), PageRequest.ofSize(2)))
+                .thenReturn(List.of(first, second));
+        when(taskRepository.findOpenRemindersAt(NOW.plusMinutes(2))).thenReturn(List.of(second, sameTime));
+        scheduler.start(NOW);
+        when(taskRepository.findOpenRemindersBetween(NOW.plusMinutes(2), NOW.plusMinutes(65), PageRequest.ofSize(2)))
+                .thenReturn(List.of(third));
+
+        // Act
+        scheduler.dispatchDue(NOW.plusMinutes(5));
+
+        // Assert
+        assertThat(sink.recent()).extracting(TaskReminder::title)
+                .containsExactlyInAnyOrder("First", "Second", "Same time", "Third");
+        assertThat(scheduler.scheduledCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep the reminders of different owners apart when their tasks share a uuid")
+    void onTaskChanged_WhenOwnersShareUuid_KeepsBothReminders() {
+        // Arrange
+        when(taskRepository.findOpenRemindersBetween(NOW, NOW.plusHours(1), PageRequest.ofSize(2)))
+                .thenReturn(List.of());
+        scheduler.start(NOW);
+        UUID uuid = UUID.randomUUID();
+        TaskDTO alices = task(new TaskReminder("alice", uuid, "Alice's", NOW.plusMinutes(10)));
+        TaskDTO bobs = task(new TaskReminder("bob", uuid, "Bob's", NOW.plusMinutes(10)));
+
+        // Act
+        TaskOwners.runAs("alice", () -> scheduler.onTaskChanged(TaskChangedEvent.created(alices)));
+        TaskOwners.runAs("bob", () -> scheduler.onTaskChanged(TaskChangedEvent.created(bobs)));
+        TaskOwners.runAs("alice", () -> scheduler.onTaskChanged(TaskChangedEvent.deleted(alices)));
+        scheduler.dispatchDue(NOW.plusMinutes(10));
+
+        // Assert
+        assertThat(sink.recent()).extracting(TaskReminder::ownerId, TaskReminder::title)
+                .containsExactly(tuple("bob", "Bob's"));
+    }
+
+    @Test
+    @DisplayName("Should take task changes while a load queries and merge them over its batch")
+    void onTaskChanged_DuringLoad_IsNotBlockedAndWinsOverBatch() {
+        // Arrange
+        TaskReminder moved = reminder("Moved", NOW.plusMinutes(10));
+        TaskReminder deleted = reminder("Deleted", NOW.plusMinutes(20));
+        TaskReminder created = reminder("Created", NOW.plusMinutes(30));
+        scheduler = new ReminderScheduler(taskRepository, sink, Duration.ofHours(1), 10);
+        when(taskRepository.findOpenRemindersBetween(NOW, NOW.plusHours(1), PageRequest.ofSize(10))).thenAnswer(invocation -> {
+            // Delivered on another thread while the batch is read, which holds the state from before them
+            CompletableFuture.runAsync(() -> TaskOwners.runAs(TaskOwners.DEFAULT, () -> {
+                scheduler.onTaskChanged(TaskChangedEvent.updated(task(moved), task(
+                        new TaskReminder(TaskOwners.DEFAULT, moved.uuid(), "Moved", NOW.plusMinutes(40)))));
+                scheduler.onTaskChanged(TaskChangedEvent.deleted(task(deleted)));
+                scheduler.onTaskChanged(TaskChangedEvent.created(task(created)));
+            })).get(5, TimeUnit.SECONDS);
+            return List.of(moved, deleted);
+        });
+
+        // Act
+        scheduler.start(NOW);
+        scheduler.dispatchDue(NOW.plusMinutes(45));
+
+        // Assert
+        assertThat(sink.recent()).extracting(TaskReminder::title, TaskReminder::reminderDateTime)
+                .containsExactly(tuple("Created", NOW.plusMinutes(30)), tuple("Moved", NOW.plusMinutes(40)));
+    }
+
+    private static TaskReminder reminder(String title, LocalDateTime at) {
+        return new TaskReminder(TaskOwners.DEFAULT, UUID.randomUUID(), title, at);
+    }
+
+    private static TaskDTO task(TaskReminder reminder) {
+        return TaskDTO.builder()
+                .uuid(reminder.uuid().toString())
+                .title(reminder.title())
+                .completed(false)
+                .reminderDateTime(reminder.reminderDateTime())
+                .build();
+    }
+}
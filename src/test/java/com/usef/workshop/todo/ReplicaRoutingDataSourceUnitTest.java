@@ -0,0 +1,124 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.config.datasource.ReplicaRoutingDataSource;
+import com.usef.workshop.todo.service.TaskOwners;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceUnitTest {
+
+    private static final String PRIMARY = "jdbc:h2:mem:routing-primary";
+    private static final String REPLICA_1 = "jdbc:h2:mem:routing-replica-1";
+    private static final String REPLICA_2 = "jdbc:h2:mem:routing-replica-2";
+
+    @Mock
+    private DataSource downReplica;
+
+    @Test
+    @DisplayName("Should take turns between the replicas for reads and send writes to the primary")
+    void getConnection_WhenReplicasHealthy_RoutesReadsRoundRobin() throws SQLException {
+        // Arrange
+        ReplicaRoutingDataSource dataSource = newDataSource(h2(REPLICA_1), h2(REPLICA_2));
+        dataSource.checkReplicas();
+
+        // Act
+        List<String> reads = List.of(connect(dataSource, "alice", true), connect(dataSource, "bob", true),
+                connect(dataSource, "carol", true));
+        String write = connect(dataSource, TaskOwners.ROOT, false);
+
+        // Assert
+        assertThat(reads).containsExactly(REPLICA_1, REPLICA_2, REPLICA_1);
+        assertThat(write).isEqualTo(PRIMARY);
+    }
+
+    @Test
+    @DisplayName("Should read an owner's tasks from the primary after their write until a replica has caught up")
+    void getConnection_AfterWrite_ReadsOwnWritesFromPrimary() throws SQLException {
+        // Arrange
+        ReplicaRoutingDataSource dataSource = newDataSource(h2(REPLICA_1));
+        dataSource.checkReplicas();
+
+        // Act
+        connect(dataSource, "alice", false);
+        String writerRead = connect(dataSource, "alice", true);
+        String otherRead = connect(dataSource, "bob", true);
+        dataSource.checkReplicas();
+        String caughtUpRead = connect(dataSource, "alice", true);
+
+        // Assert
+        assertThat(writerRead).isEqualTo(PRIMARY);
+        assertThat(otherRead).isEqualTo(REPLICA_1);
+        assertThat(caughtUpRead).isEqualTo(REPLICA_1);
+    }
+
+    @Test
+    @DisplayName("Should skip a replica that fails its health check and use the primary when none is left")
+    void getConnection_WhenReplicaDown_SkipsIt() throws SQLException {
+        // Arrange
+        when(downReplica.getConnection()).thenThrow(new SQLException("connection refused"));
+        ReplicaRoutingDataSource dataSource = newDataSource(downReplica, h2(REPLICA_2));
+        ReplicaRoutingDataSource allDown = newDataSource(downReplica);
+        dataSource.checkReplicas();
+        allDown.checkReplicas();
+
+        // Act
+        List<String> reads = List.of(connect(dataSource, "alice", true), connect(dataSource, "alice", true));
+        String allDownRead = connect(allDown, "alice", true);
+
+        // Assert
+        assertThat(reads).containsOnly(REPLICA_2);
+        assertThat(allDownRead).isEqualTo(PRIMARY);
+    }
+
+    private static ReplicaRoutingDataSource newDataSource(DataSource... replicaDataSources) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (DataSource replica : replicaDataSources) {
+            replicas.put("replica-" + (replicas.size() + 1), replica);
+        }
+        return new ReplicaRoutingDataSource(h2(PRIMARY), replicas, Duration.ofSeconds(2), "select 0",
+                new SimpleMeterRegistry());
+    }
+
+    private static DataSource h2(String url) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        return dataSource;
+    }
+
+    /**
+     * Takes a connection the way a (read-only) transaction of the owner would, commits it, and returns the url
+     * of the database it came from.
+     */
+    private static String connect(DataSource dataSource, String owner, boolean readOnly) throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        try (TaskOwners.Binding binding = TaskOwners.bind(owner);
+             Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            return url;
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.controller.dto.TaskChangeDTO;
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.event.TaskChangeFeed;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the change feed directly; subscribers get an emitter that records what the feed sends instead of writing
+ * to a response.
+ */
+class TaskChangeFeedUnitTest {
+
+    private static final String ALICE = "alice";
+    private static final String BOB = "bob";
+    private static final String CAROL = "carol";
+
+    private TaskChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should only send a subscriber the changes of its own owner")
+    void subscribe_OnlyReceivesOwnChanges() throws InterruptedException {
+        // Arrange
+        feed = newFeed(10, 100);
+        RecordingEmitter alice = subscribe(ALICE, null);
+
+        // Act
+        publish(BOB, "Bob's task");
+        publish(ALICE, "Alice's task");
+
+        // Assert
+        assertThat(alice.next()).extracting(Sent::title).isEqualTo("Alice's task");
+        assertThat(alice.sent.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should replay the changes after a version the ring still holds")
+    void subscribe_WithVersionInRing_ReplaysLaterChanges() throws InterruptedException {
+        // Arrange
+        feed = newFeed(10, 100);
+        long before = TaskOwners.callAs(ALICE, feed::latestVersion);
+        publish(ALICE, "First");
+        publish(BOB, "Bob's task");
+        publish(ALICE, "Second");
+
+        // Act
+        RecordingEmitter alice = subscribe(ALICE, before);
+
+        // Assert
+        assertThat(alice.next()).extracting(Sent::title).isEqualTo("First");
+        assertThat(alice.next()).extracting(Sent::title).isEqualTo("Second");
+    }
+
+    @Test
+    @DisplayName("Should reset a subscriber resuming from a change its ring overwrote")
+    void subscribe_WhenRingOverflowed_SendsReset() throws InterruptedException {
+        // Arrange
+        feed = newFeed(2, 100);
+        long before = TaskOwners.callAs(ALICE, feed::latestVersion);
+        publish(ALICE, "First");
+        publish(ALICE, "Second");
+        publish(ALICE, "Third");
+
+        // Act
+        RecordingEmitter alice = subscribe(ALICE, before);
+
+        // Assert
+        assertThat(alice.next()).extracting(Sent::name).isEqualTo("reset");
+        assertThat(alice.closed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reset a subscriber resuming from a version of a previous run")
+    void subscribe_WithVersionOfEarlierEpoch_SendsReset() throws InterruptedException {
+        // Arrange
+        feed = newFeed(10, 100);
+        publish(ALICE, "First");
+        long previousRun = TaskOwners.callAs(ALICE, feed::latestVersion) - (2L << 30);
+
+        // Act
+        RecordingEmitter alice = subscribe(ALICE, previousRun);
+
+        // Assert
+        assertThat(alice.next()).extracting(Sent::name).isEqualTo("reset");
+    }
+
+    @Test
+    @DisplayName("Should drop the ring of the least recently active owner and reset only those it leaves behind")
+    void onTaskChanged_WhenEntriesExceedCap_EvictsIdlestRing() throws InterruptedException {
+        // Arrange
+        feed = newFeed(2, 4);
+        long beforeAlice = TaskOwners.callAs(ALICE, feed::latestVersion);
+        publish(ALICE, "Alice 1");
+        publish(ALICE, "Alice 2");
+        long aliceLatest = TaskOwners.callAs(ALICE, feed::latestVersion);
+        publish(BOB, "Bob 1");
+        publish(BOB, "Bob 2");
+
+        // Act
+        publish(CAROL, "Carol 1");
+        RecordingEmitter behind = subscribe(ALICE, beforeAlice);
+        RecordingEmitter upToDate = subscribe(ALICE, aliceLatest);
+        publish(ALICE, "Alice 3");
+
+        // Assert
+        assertThat(behind.next()).extracting(Sent::name).isEqualTo("reset");
+        assertThat(upToDate.next()).extracting(Sent::title).isEqualTo("Alice 3");
+        assertThat(TaskOwners.callAs(BOB, feed::latestVersion)).isGreaterThan(aliceLatest);
+    }
+
+    @Test
+    @DisplayName("Should send every change in order while changes are published during the drain")
+    void onTaskChanged_WhilePublishingConcurrently_DeliversEveryChangeInOrder() throws InterruptedException {
+        // Arrange
+        feed = newFeed(1000, 1000);
+        RecordingEmitter alice = subscribe(ALICE, null);
+        ExecutorService publishers = Executors.newFixedThreadPool(4);
+
+        // Act
+        for (int i = 0; i < 400; i++) {
+            int n = i;
+            publishers.execute(() -> publish(ALICE, "Task " + n));
+        }
+        publishers.shutdown();
+        assertThat(publishers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        List<Long> versions = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            versions.add(alice.next().version());
+        }
+
+        // Assert
+        assertThat(versions).isSorted().doesNotHaveDuplicates();
+        assertThat(versions.get(versions.size() - 1)).isEqualTo(TaskOwners.callAs(ALICE, feed::latestVersion));
+    }
+
+    private TaskChangeFeed newFeed(int bufferSize, int maxEntries) {
+        return new TaskChangeFeed(bufferSize, maxEntries, Duration.ofMinutes(1), new SimpleMeterRegistry()) {
+            @Override
+            protected SseEmitter newEmitter(long timeoutMillis) {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    private RecordingEmitter subscribe(String owner, Long afterVersion) {
+        return (RecordingEmitter) TaskOwners.callAs(owner, () -> feed.subscribe(afterVersion));
+    }
+
+    private void publish(String owner, String title) {
+        TaskDTO task = TaskDTO.builder().uuid(UUID.randomUUID().toString()).title(title).build();
+        feed.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.CREATED, owner, null, task));
+    }
+
+    private record Sent(String name, long version, String title) {
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<Sent> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            String name = null;
+            Object data = null;
+            for (var part : builder.build()) {
+                if (part.getData() instanceof String text && text.contains("event:")) {
+                    name = text.substring(text.indexOf("event:") + 6, text.indexOf('\n', text.indexOf("event:")));
+                } else if (!(part.getData() instanceof String)) {
+                    data = part.getData();
+                }
+            }
+            if (data instanceof TaskChangeDTO change) {
+                sent.add(new Sent(name, change.version(), change.task().title()));
+            } else if (data instanceof Map<?, ?> reset) {
+                sent.add(new Sent(name, (Long) reset.get("version"), null));
+            }
+        }
+
+        @Override
+        public void complete() {
+            closed.countDown();
+        }
+
+        Sent next() throws InterruptedException {
+            Sent next = sent.poll(5, TimeUnit.SECONDS);
+            assertThat(next).as("an event within 5 seconds").isNotNull();
+            return next;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.repo.TaskVersion;
+import com.usef.workshop.todo.service.TaskCompletionServiceImpl;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.TaskService;
+import com.usef.workshop.todo.service.completion.PendingCompletion;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskCompletionServiceUnitTest {
+
+    @Mock
+    private TaskService taskService;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @TempDir
+    Path walDirectory;
+
+    private static final String OWNER = "alice";
+    private static final long VERSION = 3L;
+
+    @Test
+    @DisplayName("Should merge the toggles of a task into one write of the last value")
+    void flush_WhenToggledSeveralTimes_WritesLastValueOnce() throws Exception {
+        // Arrange
+        UUID uuid = UUID.randomUUID();
+        when(taskRepository.findVersionByUuid(uuid)).thenReturn(Optional.of(new TaskVersion(VERSION, null)));
+        List<String> flushedAs = new ArrayList<>();
+        when(taskService.applyCompletions(anyMap())).thenAnswer(invocation -> {
+            flushedAs.add(TaskOwners.current());
+            return 1;
+        });
+        TaskCompletionServiceImpl service = newService();
+
+        // Act
+        complete(service, uuid, true);
+        complete(service, uuid, false);
+        complete(service, uuid, true);
+        service.flush();
+        service.flush();
+
+        // Assert
+        verify(taskService, times(1)).applyCompletions(Map.of(uuid, new PendingCompletion(true, VERSION)));
+        assertThat(flushedAs).containsExactly(OWNER);
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should replay the toggles a crash left unflushed on the next start")
+    void flush_WhenRestartedAfterCrash_AppliesLoggedToggles() throws Exception {
+        // Arrange
+        UUID uuid = UUID.randomUUID();
+        when(taskRepository.findVersionByUuid(uuid)).thenReturn(Optional.of(new TaskVersion(VERSION, null)));
+        TaskCompletionServiceImpl crashed = newService();
+        complete(crashed, uuid, true);
+
+        // Act
+        TaskCompletionServiceImpl restarted = newService();
+        restarted.flush();
+        TaskCompletionServiceImpl restartedAgain = newService();
+        restartedAgain.flush();
+
+        // Assert
+        verify(taskService, times(1)).applyCompletions(Map.of(uuid, new PendingCompletion(true, VERSION)));
+        restarted.shutdown();
+        restartedAgain.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should keep the toggles of a failed flush for the next one")
+    void flush_WhenApplyFails_RetriesWithNextFlush() throws Exception {
+        // Arrange
+        UUID uuid = UUID.randomUUID();
+        when(taskRepository.findVersionByUuid(uuid)).thenReturn(Optional.of(new TaskVersion(VERSION, null)));
+        when(taskService.applyCompletions(anyMap()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(1);
+        TaskCompletionServiceImpl service = newService();
+        complete(service, uuid, true);
+
+        // Act
+        service.flush();
+        service.flush();
+
+        // Assert
+        verify(taskService, times(2)).applyCompletions(Map.of(uuid, new PendingCompletion(true, VERSION)));
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should move a toggle accepted during a flush to the version that flush wrote")
+    void onTaskChanged_WhenFlushWritesTask_RebasesToggleAcceptedMeanwhile() throws Exception {
+        // Arrange
+        UUID uuid = UUID.randomUUID();
+        when(taskRepository.findVersionByUuid(uuid)).thenReturn(Optional.of(new TaskVersion(VERSION, null)));
+        TaskCompletionServiceImpl service = newService();
+        complete(service, uuid, true);
+        when(taskService.applyCompletions(Map.of(uuid, new PendingCompletion(true, VERSION)))).thenAnswer(invocation -> {
+            // Read the version before the flush committed, then the flush's after-commit event
+            complete(service, uuid, false);
+            TaskDTO after = TaskDTO.builder().uuid(uuid.toString()).completed(true).version(VERSION + 1).build();
+            service.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, OWNER, null, after));
+            return 1;
+        });
+
+        // Act
+        service.flush();
+        service.flush();
+
+        // Assert
+        verify(taskService).applyCompletions(Map.of(uuid, new PendingCompletion(false, VERSION + 1)));
+        service.shutdown();
+    }
+
+    private static void complete(TaskCompletionServiceImpl service, UUID uuid, boolean completed) {
+        TaskOwners.runAs(OWNER, () -> service.complete(uuid.toString(), completed));
+    }
+
+    private TaskCompletionServiceImpl newService() throws Exception {
+        return new TaskCompletionServiceImpl(taskService, taskRepository, walDirectory, false, new SimpleMeterRegistry());
+    }
+}
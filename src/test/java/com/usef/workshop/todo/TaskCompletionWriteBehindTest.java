@@ -0,0 +1,85 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.entity.Category;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.repo.CategoryRepository;
+import com.usef.workshop.todo.service.TaskCompletionService;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.TaskService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the completion write-behind buffer against the synchronous task writes it races with. The scheduled flush is
+ * held back so each test decides when the toggles are written.
+ */
+@SpringBootTest(properties = "todo.completions.flush-interval=PT1H")
+@ActiveProfiles("test")
+class TaskCompletionWriteBehindTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskCompletionService taskCompletionService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    @DisplayName("Should keep the completed value of a PUT made after a buffered toggle")
+    void flush_WhenPutAfterToggle_KeepsPutValue() {
+        // Arrange
+        Task task = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.saveTask(newTask("Toggled then put")));
+
+        // Act
+        TaskOwners.runAs(TaskOwners.DEFAULT, () -> {
+            taskCompletionService.complete(task.getUuid().toString(), true);
+            Task put = new Task();
+            put.setUuid(task.getUuid());
+            put.setCompleted(false);
+            taskService.updateByUuid(put, null);
+        });
+        taskCompletionService.flush();
+
+        // Assert
+        Task stored = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.findByUuid(task.getUuid().toString()));
+        assertThat(stored.getCompleted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should apply a toggle made after the last write of the task")
+    void flush_WhenToggleAfterPut_AppliesToggle() {
+        // Arrange
+        Task task = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.saveTask(newTask("Put then toggled")));
+
+        // Act
+        TaskOwners.runAs(TaskOwners.DEFAULT, () -> {
+            Task put = new Task();
+            put.setUuid(task.getUuid());
+            put.setTitle("Put then toggled, renamed");
+            taskService.updateByUuid(put, null);
+            taskCompletionService.complete(task.getUuid().toString(), true);
+        });
+        taskCompletionService.flush();
+
+        // Assert
+        Task stored = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.findByUuid(task.getUuid().toString()));
+        assertThat(stored.getCompleted()).isTrue();
+    }
+
+    private Task newTask(String title) {
+        Category category = new Category();
+        category.setName(title);
+        Task task = new Task();
+        task.setCategory(categoryRepository.save(category));
+        task.setTitle(title);
+        task.setPriority(Task.Priority.LOW);
+        return task;
+    }
+}
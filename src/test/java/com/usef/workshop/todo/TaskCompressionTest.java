@@ -0,0 +1,80 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.entity.Category;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.repo.CategoryRepository;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.TaskService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the embedded Tomcat, which is what compresses responses (server.compression.*).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskCompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("Should gzip the task list and still answer If-None-Match with its weak ETag")
+    void getAllTasks_WhenGzipAccepted_CompressesAndRevalidates() throws IOException, InterruptedException {
+        // Arrange
+        Category category = new Category();
+        category.setName("Compressed");
+        Category saved = categoryRepository.save(category);
+        TaskOwners.runAs(TaskOwners.DEFAULT, () -> {
+            // Well over server.compression.min-response-size
+            for (int i = 0; i < 40; i++) {
+                Task task = new Task();
+                task.setTitle("Compressed task " + i);
+                task.setDescription("A description long enough to take the list past the compression threshold");
+                task.setPriority(Task.Priority.MEDIUM);
+                task.setCategory(saved);
+                taskService.saveTask(task);
+            }
+        });
+
+        // Act
+        HttpResponse<byte[]> response = get(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        String etag = response.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        HttpResponse<byte[]> revalidated = get(HttpHeaders.IF_NONE_MATCH, etag);
+
+        // Assert
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(etag).startsWith("W/\"");
+        assertThat(revalidated.statusCode()).isEqualTo(304);
+    }
+
+    private HttpResponse<byte[]> get(String header, String value) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/tasks"))
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .header(header, value)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
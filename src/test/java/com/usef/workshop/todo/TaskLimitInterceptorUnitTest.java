@@ -0,0 +1,67 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.config.TaskOwnerFilter;
+import com.usef.workshop.todo.config.limit.AdaptiveConcurrencyLimit;
+import com.usef.workshop.todo.config.limit.TaskLimitInterceptor;
+import com.usef.workshop.todo.config.limit.TokenBucketRateLimiter;
+import com.usef.workshop.todo.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskLimitInterceptorUnitTest {
+
+    private static final String GATEWAY = "10.0.0.1";
+    private static final String CLIENT = "203.0.113.7";
+
+    private final TaskLimitInterceptor interceptor = new TaskLimitInterceptor(
+            new TokenBucketRateLimiter(0.001, 1, 100),
+            new AdaptiveConcurrencyLimit(100, 20, 2000, Duration.ofSeconds(1), 2.0),
+            Set.of(), 10, Set.of(GATEWAY), new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Should keep a client in its bucket when it rotates X-Owner-Id")
+    void preHandle_WhenUntrustedClientRotatesOwner_KeysOnAddress() throws Exception {
+        // Arrange
+        HandlerMethod handler = handler();
+        interceptor.preHandle(request(CLIENT, "alice"), new MockHttpServletResponse(), handler);
+
+        // Act & Assert
+        assertThatThrownBy(() -> interceptor.preHandle(request(CLIENT, "bob"), new MockHttpServletResponse(), handler))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    @DisplayName("Should give each owner their own bucket behind a trusted proxy")
+    void preHandle_WhenTrustedProxy_KeysOnOwner() throws Exception {
+        // Arrange
+        HandlerMethod handler = handler();
+        interceptor.preHandle(request(GATEWAY, "alice"), new MockHttpServletResponse(), handler);
+
+        // Act
+        boolean bob = interceptor.preHandle(request(GATEWAY, "bob"), new MockHttpServletResponse(), handler);
+
+        // Assert
+        assertThat(bob).isTrue();
+    }
+
+    private static MockHttpServletRequest request(String address, String owner) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/tasks");
+        request.setRemoteAddr(address);
+        request.addHeader(TaskOwnerFilter.OWNER_HEADER, owner);
+        return request;
+    }
+
+    private static HandlerMethod handler() throws NoSuchMethodException {
+        return new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+    }
+}
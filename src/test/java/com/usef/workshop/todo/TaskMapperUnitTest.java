@@ -0,0 +1,108 @@
+package com.usef.workshop.todo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usef.workshop.todo.controller.dto.TaskColumnsDTO;
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.mapper.TaskMapper;
+import com.usef.workshop.todo.entity.Category;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.exception.InvalidTaskException;
+import com.usef.workshop.todo.service.CategoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Test for the field-level copy and JSON Merge Patch paths of TaskMapper.
+ */
+@ExtendWith(MockitoExtension.class)
+class TaskMapperUnitTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private CategoryService categoryService;
+
+    @InjectMocks
+    private TaskMapper taskMapper;
+
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        task = Task.builder()
+                .id(1L)
+                .uuid(UUID.randomUUID())
+                .title("Test Task")
+                .description("Description")
+                .priority(Task.Priority.MEDIUM)
+                .status(Task.Status.TODO)
+                .category(new Category(1L, "Work"))
+                .completed(false)
+                .dueDate(LocalDate.of(2025, 7, 28))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should only change the members present in the merge patch")
+    void applyMergePatch_UpdatesPresentMembers() throws Exception {
+        when(categoryService.findByName("Health")).thenReturn(new Category(2L, "Health"));
+
+        taskMapper.applyMergePatch(objectMapper.readTree("""
+                {"completed": true, "categoryName": "Health", "dueDate": null}"""), task);
+
+        assertThat(task.getCompleted()).isTrue();
+        assertThat(task.getCategory().getName()).isEqualTo("Health");
+        assertThat(task.getDueDate()).isNull();
+        assertThat(task.getTitle()).isEqualTo("Test Task");
+        assertThat(task.getPriority()).isEqualTo(Task.Priority.MEDIUM);
+    }
+
+    @Test
+    @DisplayName("Should reject removing a required field")
+    void applyMergePatch_WhenRequiredFieldRemoved_ThrowsException() throws Exception {
+        assertThatThrownBy(() -> taskMapper.applyMergePatch(objectMapper.readTree("{\"title\": null}"), task))
+                .isInstanceOf(InvalidTaskException.class)
+                .hasMessageContaining("title");
+    }
+
+    @Test
+    @DisplayName("Should copy only non-null fields")
+    void copyNonNullFields_SkipsNulls() {
+        Task incoming = new Task();
+        incoming.setDescription("Updated");
+        incoming.setCompleted(null);
+
+        taskMapper.copyNonNullFields(incoming, task);
+
+        assertThat(task.getDescription()).isEqualTo("Updated");
+        assertThat(task.getTitle()).isEqualTo("Test Task");
+        assertThat(task.getCompleted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should lay out a task list by column, keeping nulls in place")
+    void mapToColumns_KeepsRowOrder() {
+        TaskDTO first = taskMapper.mapToDTO(task);
+        TaskDTO second = TaskDTO.builder().uuid(UUID.randomUUID().toString()).title("Second").build();
+
+        TaskColumnsDTO columns = taskMapper.mapToColumns(List.of(first, second));
+
+        assertThat(columns.count()).isEqualTo(2);
+        assertThat(columns.uuid()).containsExactly(first.uuid(), second.uuid());
+        assertThat(columns.title()).containsExactly("Test Task", "Second");
+        assertThat(columns.dueDate()).containsExactly(LocalDate.of(2025, 7, 28), null);
+    }
+}
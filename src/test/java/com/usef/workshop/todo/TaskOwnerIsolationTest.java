@@ -0,0 +1,160 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.config.TaskOwnerFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two owners each hold a task with the same uuid and the same title (H2 supports @TenantId like PostgreSQL). Every
+ * request goes through TaskOwnerFilter, so each one only reaches the task of the owner it names.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskOwnerIsolationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final String suffix = UUID.randomUUID().toString().substring(0, 8);
+    private final String alice = "alice-" + suffix;
+    private final String bob = "bob-" + suffix;
+    private final String carol = "carol-" + suffix;
+    private final String uuid = UUID.randomUUID().toString();
+    private final String title = "Shared title " + suffix;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        create(alice, "Alice's copy").andExpect(status().isCreated());
+        create(bob, "Bob's copy").andExpect(status().isCreated());
+    }
+
+    @Test
+    @DisplayName("Should let owners keep tasks with the same title and uuid and refuse a duplicate title for one owner")
+    void create_WithSameTitleAndUuid_IsScopedToOwner() throws Exception {
+        // Arrange
+        String otherUuid = UUID.randomUUID().toString();
+
+        // Act
+        ResultActions duplicate = mockMvc.perform(as(alice, post("/api/v1/tasks"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(taskJson(otherUuid, "Second copy")));
+
+        // Assert
+        duplicate.andExpect(status().isConflict());
+        mockMvc.perform(as(carol, post("/api/v1/tasks"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(taskJson(otherUuid, "Carol's copy")))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @DisplayName("Should only find the task of the owner asking for it")
+    void findByUuid_ReturnsTaskOfCurrentOwner() throws Exception {
+        mockMvc.perform(as(alice, get("/api/v1/tasks/{uuid}", uuid)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Alice's copy"));
+        mockMvc.perform(as(bob, get("/api/v1/tasks/{uuid}", uuid)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Bob's copy"));
+        mockMvc.perform(as(carol, get("/api/v1/tasks/{uuid}", uuid)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should only update the task of the owner sending the update")
+    void updateByUuid_LeavesOtherOwnersTask() throws Exception {
+        // Act
+        ResultActions byCarol = mockMvc.perform(as(carol, put("/api/v1/tasks"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(taskJson(uuid, "Carol's update")));
+        ResultActions byBob = mockMvc.perform(as(bob, put("/api/v1/tasks"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(taskJson(uuid, "Bob's update")));
+
+        // Assert
+        byCarol.andExpect(status().isNotFound());
+        byBob.andExpect(status().isOk()).andExpect(jsonPath("$.description").value("Bob's update"));
+        mockMvc.perform(as(alice, get("/api/v1/tasks/{uuid}", uuid)))
+                .andExpect(jsonPath("$.description").value("Alice's copy"));
+    }
+
+    @Test
+    @DisplayName("Should only delete the task of the owner sending the delete")
+    void deleteByUuid_LeavesOtherOwnersTask() throws Exception {
+        // Act
+        ResultActions byCarol = mockMvc.perform(as(carol, delete("/api/v1/tasks/{uuid}", uuid)));
+        ResultActions byBob = mockMvc.perform(as(bob, delete("/api/v1/tasks/{uuid}", uuid)));
+
+        // Assert
+        byCarol.andExpect(status().isNotFound());
+        byBob.andExpect(status().isNoContent());
+        mockMvc.perform(as(bob, get("/api/v1/tasks/{uuid}", uuid))).andExpect(status().isNotFound());
+        mockMvc.perform(as(alice, get("/api/v1/tasks/{uuid}", uuid)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Alice's copy"));
+    }
+
+    @Test
+    @DisplayName("Should only list the tasks of the current owner in pages")
+    void page_ListsTasksOfCurrentOwner() throws Exception {
+        mockMvc.perform(as(alice, get("/api/v1/tasks/page")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].description").value("Alice's copy"));
+        mockMvc.perform(as(carol, get("/api/v1/tasks/page")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("Should only match the tasks of the current owner in queries")
+    void query_MatchesTasksOfCurrentOwner() throws Exception {
+        mockMvc.perform(as(bob, get("/api/v1/tasks/query").param("category", "Work")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].description").value("Bob's copy"));
+        mockMvc.perform(as(bob, get("/api/v1/tasks/query").param("keyword", suffix)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].description").value("Bob's copy"));
+        mockMvc.perform(as(carol, get("/api/v1/tasks/query").param("keyword", suffix)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    private ResultActions create(String owner, String description) throws Exception {
+        return mockMvc.perform(as(owner, post("/api/v1/tasks"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(taskJson(uuid, description)));
+    }
+
+    private String taskJson(String taskUuid, String description) {
+        return """
+                {"uuid": "%s", "title": "%s", "description": "%s", "priority": "MEDIUM", "status": "TODO", "categoryName": "Work"}
+                """.formatted(taskUuid, title, description);
+    }
+
+    private static MockHttpServletRequestBuilder as(String owner, MockHttpServletRequestBuilder request) {
+        return request.header(TaskOwnerFilter.OWNER_HEADER, owner);
+    }
+}
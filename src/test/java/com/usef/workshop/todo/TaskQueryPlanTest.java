@@ -0,0 +1,199 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.controller.dto.TaskQueryDTO;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.repo.TaskOrder;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.repo.TaskSortField;
+import com.usef.workshop.todo.repo.TaskSpecifications;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.TaskService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every selective TaskRepository query against PostgreSQL migrated by Flyway and seeded with 50k tasks,
+ * and fails when its plan falls back to a sequential scan of tasks.
+ * The SQL is the tasks query Hibernate actually issued, captured with a StatementInspector, then EXPLAINed
+ * with the same arguments in bind order. Queries that read the whole table (findAll*, stream*) are sequential
+ * by design, and the LIKE based findByTitleContaining... finder cannot use a b-tree, so those are not checked.
+ * Queries run as one of 1000 seeded owners, whose id is inlined in place of the owner parameter Hibernate adds so
+ * the plan shows the partition pruning; the reminder queries run unrestricted like the scheduler.
+ * <p>
+ * Needs Docker for the PostgreSQL container and is skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.usef.workshop.todo.TaskQueryPlanTest$SqlRecorder",
+        "todo.completions.wal-dir=${java.io.tmpdir}/todo-completions-test"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TaskQueryPlanTest {
+
+    private static final int ROWS = 50_000;
+    private static final String OWNER = "owner-0";
+    private static final Pattern OWNER_PARAMETER = Pattern.compile("(\\w+\\.owner_id) ?= ?\\?");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID uuid;
+    private LocalDateTime createdAt;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                insert into categories (id, name)
+                select 100000 + g, 'Seed category ' || g from generate_series(1, 100) g""");
+        jdbcTemplate.update("""
+                insert into tasks (owner_id, id, uuid, title, description, priority, category_id, completed,
+                                   due_date, reminder_date_time, status, created_at, updated_at, priority_rank, status_rank)
+                select 'owner-' || g % 1000, 1000000000 + g, gen_random_uuid(), 'Seed task ' || g, 'Seeded for query plans ' || g,
+                       (array['LOW', 'MEDIUM', 'HIGH'])[1 + g % 3], 100001 + g % 100, g % 10 <> 0,
+                       date '2025-01-01' + g % 730, timestamp '2025-01-01' + g * interval '7 minutes',
+                       case g % 20 when 0 then 'IN_PROGRESS' when 1 then 'TODO' else 'DONE' end,
+                       timestamp '2024-01-01' + g * interval '1 minute', timestamp '2024-01-01' + g * interval '1 minute',
+                       g % 3, case g % 20 when 0 then 1 when 1 then 0 else 2 end
+                from generate_series(1, ?) g""", ROWS);
+        jdbcTemplate.execute("analyze tasks");
+        jdbcTemplate.execute("analyze categories");
+
+        uuid = jdbcTemplate.queryForObject("select uuid from tasks where id = ?", UUID.class, 1_000_000_000L + ROWS / 2);
+        createdAt = jdbcTemplate.queryForObject("select created_at from tasks where uuid = ?", LocalDateTime.class, uuid);
+    }
+
+    @TestFactory
+    @DisplayName("Selective repository queries use an index on tasks")
+    Stream<DynamicTest> repositoryQueriesAvoidSequentialScans() {
+        LocalDate dueDate = LocalDate.of(2025, 6, 1);
+        List<UUID> uuids = jdbcTemplate.queryForList("select uuid from tasks where id in (1000000010, 1000000020, 1000000030)", UUID.class);
+        PageRequest page = PageRequest.ofSize(51);
+
+        return Stream.of(
+                plan("findByUuid", () -> taskRepository.findByUuid(uuid), uuid),
+                plan("findVersionByUuid", () -> taskRepository.findVersionByUuid(uuid), uuid),
+                plan("findIdByUuid", () -> taskRepository.findIdByUuid(uuid), uuid),
+                plan("findLastUpdatedAt", () -> taskRepository.findLastUpdatedAt()),
+                plan("findByTitle", () -> taskRepository.findByTitle("Seed task 25000"), "Seed task 25000"),
+                plan("findByCategory_Name", () -> taskRepository.findByCategory_Name("Seed category 7"), "Seed category 7"),
+                plan("findByStatus", () -> taskRepository.findByStatus(Task.Status.IN_PROGRESS), "IN_PROGRESS"),
+                plan("findByDueDate", () -> taskRepository.findByDueDate(dueDate), dueDate),
+                plan("findByUuidIn", () -> taskRepository.findByUuidIn(uuids), uuids.toArray()),
+                plan("findExistingUuids", () -> taskRepository.findExistingUuids(uuids), uuids.toArray()),
+                plan("findExistingTitles", () -> taskRepository.findExistingTitles(List.of("Seed task 1", "Seed task 2")),
+                        "Seed task 1", "Seed task 2"),
+                plan("findFirstTaskDTOPageOrderedByCreatedAt",
+                        () -> taskRepository.findFirstTaskDTOPageOrderedByCreatedAt(page), page.getPageSize()),
+                plan("findTaskDTOPageOrderedByCreatedAtAfter",
+                        () -> taskRepository.findTaskDTOPageOrderedByCreatedAtAfter(createdAt, uuid, page),
+                        createdAt, createdAt, uuid, page.getPageSize()),
+                plan("findTaskDTOsUpdatedAfter",
+                        () -> taskRepository.findTaskDTOsUpdatedAfter(createdAt, uuid, createdAt.plusDays(1), page),
+                        createdAt, createdAt, uuid, createdAt.plusDays(1), page.getPageSize()),
+                plan("findTaskDTOsByUuidIn", () -> taskRepository.findTaskDTOsByUuidIn(uuids), uuids.toArray()),
+                plan("findTaskDTOsByCategoryName",
+                        () -> taskRepository.findTaskDTOsByCategoryName("Seed category 7"), "Seed category 7"),
+                plan("searchUuidsByTsQuery", () -> taskRepository.searchUuidsByTsQuery(OWNER, "25000:*", 20),
+                        "25000:*", "25000:*", 20),
+                // PostgresTaskSearchEngine.matching inlines the tsquery through sql(), leaving only the limit to bind
+                plan("findByQuery keyword", () -> taskService.findByQuery(TaskQueryDTO.builder()
+                                .keyword("25000").size(page.getPageSize() - 1).build()),
+                        page.getPageSize()),
+                plan("findTaskDTOs", () -> taskRepository.findTaskDTOs(
+                                Specification.allOf(TaskSpecifications.categoryIdIn(List.of(100007L)),
+                                        TaskSpecifications.dueBetween(dueDate, dueDate.plusDays(7))),
+                                List.of(new TaskOrder(TaskSortField.DUE_DATE, true), new TaskOrder(TaskSortField.TASK_UUID, true)),
+                                null, page.getPageSize()),
+                        100007L, dueDate, dueDate.plusDays(7), page.getPageSize()),
+                plan("findTaskDTOs by priority", () -> taskRepository.findTaskDTOs(null,
+                                List.of(new TaskOrder(TaskSortField.PRIORITY, true), new TaskOrder(TaskSortField.TASK_UUID, true)),
+                                null, page.getPageSize()),
+                        page.getPageSize()),
+                plan("findTaskDTOs by priority after", () -> taskRepository.findTaskDTOs(null,
+                                List.of(new TaskOrder(TaskSortField.PRIORITY, true), new TaskOrder(TaskSortField.TASK_UUID, true)),
+                                List.of((short) 1, uuid), page.getPageSize()),
+                        (short) 1, (short) 1, (short) 1, uuid, page.getPageSize()),
+                plan("findTaskDTOs by status", () -> taskRepository.findTaskDTOs(null,
+                                List.of(new TaskOrder(TaskSortField.STATUS, false), new TaskOrder(TaskSortField.TASK_UUID, false)),
+                                null, page.getPageSize()),
+                        page.getPageSize()),
+                unrestrictedPlan("findOpenRemindersBetween", () -> taskRepository.findOpenRemindersBetween(
+                                createdAt.plusYears(1), createdAt.plusYears(1).plusHours(1), page),
+                        createdAt.plusYears(1), createdAt.plusYears(1).plusHours(1), page.getPageSize()),
+                unrestrictedPlan("findOpenRemindersAt", () -> taskRepository.findOpenRemindersAt(createdAt.plusYears(1)),
+                        createdAt.plusYears(1))
+        ).map(query -> DynamicTest.dynamicTest(query.name(), () -> {
+            String sql = capture(query.call());
+            String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, query.args()));
+
+            assertThat(plan).as("%s%n%s", sql, plan).doesNotContain("Seq Scan on tasks");
+        }));
+    }
+
+    private static String capture(Runnable call) {
+        SqlRecorder.STATEMENTS.clear();
+        call.run();
+        String sql = SqlRecorder.STATEMENTS.stream()
+                .filter(statement -> statement.startsWith("select") && statement.contains(" from tasks "))
+                .findFirst()
+                .orElseThrow();
+        return OWNER_PARAMETER.matcher(sql).replaceAll("$1 = '" + OWNER + "'");
+    }
+
+    private static PlannedQuery plan(String name, Runnable call, Object... args) {
+        return new PlannedQuery(name, () -> TaskOwners.runAs(OWNER, call::run), args);
+    }
+
+    private static PlannedQuery unrestrictedPlan(String name, Runnable call, Object... args) {
+        return new PlannedQuery(name, () -> TaskOwners.runAs(TaskOwners.ROOT, call::run), args);
+    }
+
+    private record PlannedQuery(String name, Runnable call, Object[] args) {
+    }
+
+    /**
+     * Keeps the SQL Hibernate sends so the test explains exactly what the repository runs.
+     */
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.entity.Category;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.repo.CategoryRepository;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.TaskService;
+import com.usef.workshop.todo.service.search.TaskSearchEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the in-memory search index (test profile) only sees task changes that commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskSearchIndexTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskSearchEngine taskSearchEngine;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should index a committed task and leave out one whose transaction rolled back")
+    void saveTask_WhenRolledBack_IsNotIndexed() {
+        // Arrange
+        Category category = new Category();
+        category.setName("Indexed");
+        Category saved = categoryRepository.save(category);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Act
+        TaskOwners.runAs(TaskOwners.DEFAULT, () -> {
+            transaction.executeWithoutResult(status -> taskService.saveTask(newTask("Committed zephyr", saved)));
+            transaction.executeWithoutResult(status -> {
+                taskService.saveTask(newTask("Rolledback quokka", saved));
+                status.setRollbackOnly();
+            });
+        });
+
+        // Assert
+        assertThat(TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskSearchEngine.search("zephyr", 10))).hasSize(1);
+        assertThat(TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskSearchEngine.search("quokka", 10))).isEmpty();
+    }
+
+    private static Task newTask(String title, Category category) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setPriority(Task.Priority.LOW);
+        task.setCategory(category);
+        return task;
+    }
+}
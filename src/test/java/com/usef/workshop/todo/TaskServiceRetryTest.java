@@ -0,0 +1,192 @@
+package com.usef.workshop.todo;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.usef.workshop.todo.controller.dto.BulkItemResultDTO;
+import com.usef.workshop.todo.entity.Category;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.exception.TaskConflictException;
+import com.usef.workshop.todo.exception.TaskVersionMismatchException;
+import com.usef.workshop.todo.repo.CategoryRepository;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.TaskService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Checks that ConflictRetryAspect wraps the transaction advice of TaskServiceImpl, so that every retry runs in
+ * a fresh transaction rather than in the one that lost its optimistic lock, that a write is only run again when
+ * the concurrent write left its fields alone, and that writes guarded by If-Match end in 412.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskServiceRetryTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @MockitoSpyBean
+    private TaskRepository taskRepository;
+
+    @Test
+    @DisplayName("Should retry a write without If-Match in a new transaction")
+    void updateByUuid_WhenLockLostWithoutIfMatch_RetriesInNewTransaction() {
+        // Arrange
+        Task task = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.saveTask(newTask("Retried")));
+        List<Integer> completedBeforeRun = new ArrayList<>();
+        List<Integer> outcomes = new ArrayList<>();
+        doAnswer(invocation -> {
+            completedBeforeRun.add(outcomes.size());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    outcomes.add(status);
+                }
+            });
+            if (completedBeforeRun.size() == 1) {
+                throw new ObjectOptimisticLockingFailureException(Task.class, task.getId());
+            }
+            // The loaded task is managed: the commit flushes it
+            return invocation.getArgument(0);
+        }).when(taskRepository).saveAndFlush(any(Task.class));
+
+        // Act
+        Task update = new Task();
+        update.setUuid(task.getUuid());
+        update.setTitle("Retried again");
+        Task updated = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.updateByUuid(update, null));
+
+        // Assert
+        assertThat(updated.getTitle()).isEqualTo("Retried again");
+        assertThat(completedBeforeRun).containsExactly(0, 1);
+        assertThat(outcomes).containsExactly(TransactionSynchronization.STATUS_ROLLED_BACK,
+                TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    @Test
+    @DisplayName("Should answer a write guarded by If-Match that lost its lock with 412, without running it again")
+    void updateByUuid_WhenLockLostWithIfMatch_FailsPrecondition() {
+        // Arrange
+        Task task = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.saveTask(newTask("Not retried")));
+        doAnswer(invocation -> {
+            throw new ObjectOptimisticLockingFailureException(Task.class, task.getId());
+        }).when(taskRepository).saveAndFlush(any(Task.class));
+        Task update = new Task();
+        update.setUuid(task.getUuid());
+        update.setTitle("Not retried again");
+
+        // Act & Assert
+        assertThatThrownBy(() -> TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.updateByUuid(update, task.getVersion())))
+                .isInstanceOf(TaskVersionMismatchException.class);
+        verify(taskRepository, times(1)).saveAndFlush(any(Task.class));
+    }
+
+    @Test
+    @DisplayName("Should apply a merge patch again on top of a concurrent write to other fields")
+    void patchByUuid_WhenConcurrentWriteLeftFieldsAlone_ReappliesPatch() {
+        // Arrange
+        Task task = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.saveTask(newTask("Patched")));
+        writeConcurrentlyBeforeFirstFlush(task, "Described concurrently", null);
+
+        // Act
+        Task patched = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.patchByUuid(task.getUuid().toString(),
+                JsonNodeFactory.instance.objectNode().put("title", "Patched again"), null));
+
+        // Assert
+        assertThat(patched.getTitle()).isEqualTo("Patched again");
+        assertThat(patched.getDescription()).isEqualTo("Described concurrently");
+    }
+
+    @Test
+    @DisplayName("Should fail a merge patch with 409 when a concurrent write changed a field it sets")
+    void patchByUuid_WhenConcurrentWriteChangedField_ThrowsConflict() {
+        // Arrange
+        Task task = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.saveTask(newTask("Patched twice")));
+        writeConcurrentlyBeforeFirstFlush(task, null, "Renamed concurrently");
+
+        // Act & Assert
+        assertThatThrownBy(() -> TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.patchByUuid(
+                task.getUuid().toString(), JsonNodeFactory.instance.objectNode().put("title", "Renamed by patch"), null)))
+                .isInstanceOf(TaskConflictException.class)
+                .hasMessageContaining("title");
+        assertThat(TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.findByUuid(task.getUuid().toString())))
+                .extracting(Task::getTitle)
+                .isEqualTo("Renamed concurrently");
+    }
+
+    @Test
+    @DisplayName("Should fail only the item of a bulk delete whose task changed since it was loaded")
+    void deleteAllByUuid_WhenTaskChangedSinceLoaded_ReportsConflictForThatTask() {
+        // Arrange
+        Task task = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.saveTask(newTask("Deleted stale")));
+        Task other = TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.saveTask(newTask("Deleted fresh")));
+        Task update = new Task();
+        update.setUuid(task.getUuid());
+        update.setTitle("Deleted stale, changed");
+        TaskOwners.runAs(TaskOwners.DEFAULT, () -> taskService.updateByUuid(update, null));
+        // The bulk delete sees the first task as it was before the update
+        doReturn(List.of(task, other)).when(taskRepository).findByUuidIn(any());
+
+        // Act
+        List<BulkItemResultDTO> results = TaskOwners.callAs(TaskOwners.DEFAULT,
+                () -> taskService.deleteAllByUuid(List.of(task.getUuid().toString(), other.getUuid().toString())));
+
+        // Assert
+        assertThat(results).extracting(BulkItemResultDTO::status).containsExactly(409, 204);
+        assertThat(TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskService.findByUuid(task.getUuid().toString())))
+                .extracting(Task::getTitle)
+                .isEqualTo("Deleted stale, changed");
+        assertThat(TaskOwners.callAs(TaskOwners.DEFAULT, () -> taskRepository.findByUuid(other.getUuid()))).isEmpty();
+    }
+
+    // The first flush of a write loses its lock to an update committed on another thread after its read
+    private void writeConcurrentlyBeforeFirstFlush(Task task, String description, String title) {
+        AtomicInteger flushes = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (flushes.incrementAndGet() == 1) {
+                Task concurrent = new Task();
+                concurrent.setUuid(task.getUuid());
+                concurrent.setDescription(description);
+                concurrent.setTitle(title);
+                CompletableFuture.runAsync(() -> TaskOwners.runAs(TaskOwners.DEFAULT,
+                        () -> taskService.updateByUuid(concurrent, null))).join();
+                throw new ObjectOptimisticLockingFailureException(Task.class, task.getId());
+            }
+            // The loaded task is managed: the commit flushes it
+            return invocation.getArgument(0);
+        }).when(taskRepository).saveAndFlush(any(Task.class));
+    }
+
+    private Task newTask(String title) {
+        Category category = new Category();
+        category.setName(title);
+        Task task = new Task();
+        task.setCategory(categoryRepository.save(category));
+        task.setTitle(title);
+        task.setPriority(Task.Priority.LOW);
+        return task;
+    }
+}
@@ -1,19 +1,36 @@
 package com.usef.workshop.todo;
 
+import com.usef.workshop.todo.controller.dto.BulkItemResultDTO;
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.dto.TaskPageDTO;
+import com.usef.workshop.todo.controller.dto.TaskQueryDTO;
+import com.usef.workshop.todo.controller.mapper.TaskMapper;
 import com.usef.workshop.todo.entity.Category;
 import com.usef.workshop.todo.entity.Task;
 import com.usef.workshop.todo.exception.InvalidTaskException;
 import com.usef.workshop.todo.exception.TaskNotFoundException;
+import com.usef.workshop.todo.exception.TaskVersionMismatchException;
 import com.usef.workshop.todo.repo.CategoryRepository;
+import com.usef.workshop.todo.repo.TaskOrder;
 import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.repo.TaskSortField;
+import com.usef.workshop.todo.service.TaskCursor;
+import com.usef.workshop.todo.service.TaskIdCache;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.TaskQueryCursor;
 import com.usef.workshop.todo.service.TaskServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -23,6 +40,10 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,6 +63,15 @@ class TaskServiceUnitTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Spy
+    private TaskMapper taskMapper = new TaskMapper(null);
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private TaskIdCache taskIdCache = new TaskIdCache(100, new SimpleMeterRegistry());
+
     // We inject the mocks into the implementation directly
     @InjectMocks
     private TaskServiceImpl taskService;
@@ -50,8 +80,11 @@ class TaskServiceUnitTest {
     private UUID uuid;
     private Category category;
 
+    private TaskOwners.Binding owner;
+
     @BeforeEach
     void setUp() {
+        owner = TaskOwners.bind(TaskOwners.DEFAULT);
         uuid = UUID.randomUUID();
         category = new Category();
         category.setId(1L);
@@ -70,6 +103,11 @@ class TaskServiceUnitTest {
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        owner.close();
+    }
+
     @Test
     @DisplayName("Should return Task when it exists")
     void findByUuid_WhenTaskExists_ReturnsTask() {
@@ -113,25 +151,154 @@ class TaskServiceUnitTest {
                 .hasMessageContaining("Invalid UUID format");
     }
 
+    @Test
+    @DisplayName("Should load a task by primary key once its uuid has been looked up")
+    void findByUuid_WhenSeenBefore_LoadsById() {
+        // Arrange
+        task.setId(7L);
+        when(taskRepository.findByUuid(uuid)).thenReturn(Optional.of(task));
+        when(taskRepository.findById(7L)).thenReturn(Optional.of(task));
+
+        // Act
+        taskService.findByUuid(uuid.toString());
+        Task second = taskService.findByUuid(uuid.toString());
+
+        // Assert
+        assertThat(second).isSameAs(task);
+        verify(taskRepository, times(1)).findByUuid(uuid);
+        verify(taskRepository).findById(7L);
+    }
+
+    @Test
+    @DisplayName("Should reject an update made against a stale version")
+    void updateByUuid_WhenVersionIsStale_ThrowsException() {
+        // Arrange
+        task.setVersion(3L);
+        when(taskRepository.findByUuid(uuid)).thenReturn(Optional.of(task));
+        Task update = Task.builder().uuid(uuid).title("Renamed").build();
+
+        // Act & Assert
+        assertThatThrownBy(() -> taskService.updateByUuid(update, 2L))
+                .isInstanceOf(TaskVersionMismatchException.class)
+                .hasMessageContaining("version 3");
+        assertThat(task.getTitle()).isEqualTo("Test Task");
+    }
+
+    @Test
+    @DisplayName("Should fail only the bulk updates with a stale version or a title already taken")
+    void updateAll_WithStaleVersionsAndTakenTitles_ReportsConflictPerItem() {
+        // Arrange
+        Task stale = Task.builder().id(1L).uuid(UUID.randomUUID()).title("Stale").version(2L).build();
+        Task takenRename = Task.builder().id(2L).uuid(UUID.randomUUID()).title("Second").version(0L).build();
+        Task rename = Task.builder().id(3L).uuid(UUID.randomUUID()).title("Third").version(0L).build();
+        Task sameRename = Task.builder().id(4L).uuid(UUID.randomUUID()).title("Fourth").version(0L).build();
+        when(taskRepository.findByUuidIn(any())).thenReturn(List.of(stale, takenRename, rename, sameRename));
+        when(taskRepository.findExistingTitles(any())).thenReturn(List.of("Taken"));
+
+        // Act
+        List<BulkItemResultDTO> results = taskService.updateAll(List.of(
+                TaskDTO.builder().uuid(stale.getUuid().toString()).title("Stale, renamed").version(1L).build(),
+                TaskDTO.builder().uuid(takenRename.getUuid().toString()).title("Taken").build(),
+                TaskDTO.builder().uuid(rename.getUuid().toString()).title("Fresh").version(0L).build(),
+                TaskDTO.builder().uuid(sameRename.getUuid().toString()).title("Fresh").build()));
+
+        // Assert
+        assertThat(results).extracting(BulkItemResultDTO::status).containsExactly(409, 409, 200, 409);
+        assertThat(results).extracting(BulkItemResultDTO::uuid).containsExactly(stale.getUuid().toString(),
+                takenRename.getUuid().toString(), rename.getUuid().toString(), sameRename.getUuid().toString());
+        assertThat(stale.getTitle()).isEqualTo("Stale");
+        assertThat(takenRename.getTitle()).isEqualTo("Second");
+        assertThat(rename.getTitle()).isEqualTo("Fresh");
+        assertThat(sameRename.getTitle()).isEqualTo("Fourth");
+        verify(taskRepository).flush();
+    }
+
     @Test
     @DisplayName("Should return list of tasks ordered by creation date")
     void findAllOrderedByCreatedAt_ReturnsList() {
         // Arrange
-        Task task2 = Task.builder()
-                .id(2L)
-                .uuid(UUID.randomUUID())
+        TaskDTO task2 = TaskDTO.builder()
+                .uuid(UUID.randomUUID().toString())
                 .title("Task 2")
                 .createdAt(LocalDateTime.now().plusHours(1))
                 .build();
 
-        when(taskRepository.findAllByOrderByCreatedAtAsc()).thenReturn(List.of(task, task2));
+        TaskDTO task1 = taskMapper.mapToDTO(task);
+        when(taskRepository.findAllTaskDTOsOrderedByCreatedAt()).thenReturn(List.of(task1, task2));
 
         // Act
-        List<Task> result = taskService.findAllOrderedByCreatedAt();
+        List<TaskDTO> result = taskService.findAllOrderedByCreatedAt();
 
         // Assert
         assertThat(result).hasSize(2);
-        assertThat(result).extracting(Task::getTitle)
+        assertThat(result).extracting(TaskDTO::title)
                 .containsExactly("Test Task", "Task 2");
     }
+
+    @Test
+    @DisplayName("Should return next cursor when more tasks follow the page")
+    void findPageOrderedByCreatedAt_WhenMoreTasks_ReturnsCursor() {
+        // Arrange
+        TaskDTO task2 = TaskDTO.builder()
+                .uuid(UUID.randomUUID().toString())
+                .title("Task 2")
+                .createdAt(LocalDateTime.now().plusHours(1))
+                .build();
+
+        TaskDTO task1 = taskMapper.mapToDTO(task);
+        when(taskRepository.findFirstTaskDTOPageOrderedByCreatedAt(PageRequest.ofSize(2))).thenReturn(List.of(task1, task2));
+
+        // Act
+        TaskPageDTO page = taskService.findPageOrderedByCreatedAt(null, 1);
+
+        // Assert
+        assertThat(page.items()).hasSize(1);
+        TaskCursor cursor = TaskCursor.decode(page.nextCursor());
+        assertThat(cursor.uuid()).isEqualTo(uuid);
+        assertThat(cursor.createdAt()).isEqualTo(task.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when cursor is malformed")
+    void findPageOrderedByCreatedAt_WhenInvalidCursor_ThrowsException() {
+        assertThatThrownBy(() -> taskService.findPageOrderedByCreatedAt("not-a-cursor", 10))
+                .isInstanceOf(InvalidTaskException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    @DisplayName("Should order query results by the requested keys with uuid as tiebreaker")
+    void findByQuery_WhenMoreTasks_ReturnsCursorForRequestedSort() {
+        // Arrange
+        List<TaskOrder> orders = List.of(
+                new TaskOrder(TaskSortField.PRIORITY, false),
+                new TaskOrder(TaskSortField.DUE_DATE, true),
+                new TaskOrder(TaskSortField.TASK_UUID, true));
+        TaskDTO task1 = taskMapper.mapToDTO(task);
+        TaskDTO task2 = TaskDTO.builder()
+                .uuid(UUID.randomUUID().toString())
+                .title("Task 2")
+                .priority("LOW")
+                .build();
+        when(taskRepository.findTaskDTOs(any(), eq(orders), isNull(), eq(2))).thenReturn(List.of(task1, task2));
+
+        // Act
+        TaskPageDTO page = taskService.findByQuery(TaskQueryDTO.builder()
+                .sort(List.of("priority,desc", "dueDate"))
+                .size(1)
+                .build());
+
+        // Assert
+        assertThat(page.items()).containsExactly(task1);
+        assertThat(TaskQueryCursor.decode(page.nextCursor(), orders).keys())
+                .containsExactly((short) Task.Priority.MEDIUM.ordinal(), task.getDueDate(), uuid);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when sorting by an unknown field")
+    void findByQuery_WhenUnknownSortField_ThrowsException() {
+        assertThatThrownBy(() -> taskService.findByQuery(TaskQueryDTO.builder().sort(List.of("uuid")).build()))
+                .isInstanceOf(InvalidTaskException.class)
+                .hasMessageContaining("Unknown sort field");
+    }
 }
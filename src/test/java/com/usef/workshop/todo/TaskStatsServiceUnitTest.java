@@ -0,0 +1,177 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.dto.TaskStatsDTO;
+import com.usef.workshop.todo.entity.Task;
+import com.usef.workshop.todo.repo.TaskDueDateCount;
+import com.usef.workshop.todo.repo.TaskGroupCount;
+import com.usef.workshop.todo.repo.TaskOwnedVersion;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.TaskStatsServiceImpl;
+import com.usef.workshop.todo.service.event.TaskChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskStatsServiceUnitTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private TaskStatsServiceImpl taskStatsService;
+
+    private TaskOwners.Binding owner;
+
+    @BeforeEach
+    void bindOwner() {
+        owner = TaskOwners.bind("alice");
+    }
+
+    @AfterEach
+    void unbindOwner() {
+        owner.close();
+    }
+
+    @Test
+    @DisplayName("Should adjust counters on create, update and delete")
+    void onTaskChanged_UpdatesCounters() {
+        // Arrange
+        TaskDTO created = task("HIGH", "TODO", false, LocalDate.now().minusDays(1));
+        TaskDTO done = task("HIGH", "DONE", true, created.dueDate());
+        TaskDTO other = task("LOW", "TODO", false, null);
+        taskStatsService.getStats();
+
+        // Act
+        taskStatsService.onTaskChanged(TaskChangedEvent.created(created));
+        taskStatsService.onTaskChanged(TaskChangedEvent.created(other));
+        TaskStatsDTO beforeUpdate = taskStatsService.getStats();
+        taskStatsService.onTaskChanged(TaskChangedEvent.updated(created, done));
+        taskStatsService.onTaskChanged(TaskChangedEvent.deleted(other));
+
+        // Assert
+        assertThat(beforeUpdate.total()).isEqualTo(2);
+        assertThat(beforeUpdate.overdue()).isEqualTo(1);
+        TaskStatsDTO stats = taskStatsService.getStats();
+        assertThat(stats.total()).isEqualTo(1);
+        assertThat(stats.completed()).isEqualTo(1);
+        assertThat(stats.overdue()).isZero();
+        assertThat(stats.byStatus()).containsEntry("DONE", 1L).containsEntry("TODO", 0L);
+        assertThat(stats.byPriority()).containsEntry("HIGH", 1L).containsEntry("LOW", 0L);
+        assertThat(stats.byCategory()).containsExactlyEntriesOf(Map.of("Work", 1L));
+    }
+
+    @Test
+    @DisplayName("Should replace counters with the database counts on reconcile")
+    void reconcile_ReplacesCounters() {
+        // Arrange
+        taskStatsService.onTaskChanged(TaskChangedEvent.created(task("LOW", "TODO", false, null)));
+        when(taskRepository.countByCategoryStatusPriorityAndCompleted()).thenReturn(List.of(
+                new TaskGroupCount("alice", "Work", Task.Status.IN_PROGRESS, Task.Priority.MEDIUM, false, 3L),
+                new TaskGroupCount("bob", "Home", Task.Status.DONE, Task.Priority.MEDIUM, true, 2L)));
+        when(taskRepository.countOpenTasksByDueDate()).thenReturn(List.of(
+                new TaskDueDateCount("alice", LocalDate.now().minusDays(3), 2L),
+                new TaskDueDateCount("bob", LocalDate.now().plusDays(3), 1L)));
+
+        // Act
+        taskStatsService.reconcile();
+
+        // Assert
+        TaskStatsDTO stats = TaskOwners.callAs(TaskOwners.ROOT, taskStatsService::getStats);
+        assertThat(stats.total()).isEqualTo(5);
+        assertThat(stats.completed()).isEqualTo(2);
+        assertThat(stats.overdue()).isEqualTo(2);
+        assertThat(stats.byStatus()).containsEntry("IN_PROGRESS", 3L).containsEntry("DONE", 2L).containsEntry("TODO", 0L);
+        assertThat(stats.byCategory()).containsEntry("Work", 3L).containsEntry("Home", 2L);
+        assertThat(stats.reconciledAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should replay the changes delivered during the count that the counts don't include")
+    void reconcile_WhenTasksChangeDuringCount_ReplaysMissedChanges() {
+        // Arrange
+        TaskDTO counted = task("LOW", "TODO", false, null).toBuilder().version(0L).build();
+        TaskDTO missed = task("HIGH", "TODO", false, null).toBuilder().version(0L).build();
+        TaskDTO missedUpdate = missed.toBuilder().status("DONE").completed(true).version(1L).build();
+        when(taskRepository.countByCategoryStatusPriorityAndCompleted()).thenAnswer(invocation -> {
+            // Delivered while the GROUP BY runs: the first committed before its snapshot, the other after
+            TaskOwners.runAs("alice", () -> {
+                taskStatsService.onTaskChanged(TaskChangedEvent.created(counted));
+                taskStatsService.onTaskChanged(TaskChangedEvent.updated(missed, missedUpdate));
+                taskStatsService.onTaskChanged(TaskChangedEvent.created(missed));
+            });
+            return List.of(
+                    new TaskGroupCount("alice", "Work", Task.Status.TODO, Task.Priority.LOW, false, 1L),
+                    new TaskGroupCount("alice", "Work", Task.Status.TODO, Task.Priority.HIGH, false, 1L),
+                    new TaskGroupCount("alice", "Work", Task.Status.TODO, Task.Priority.MEDIUM, false, 2L));
+        });
+        when(taskRepository.countOpenTasksByDueDate()).thenReturn(List.of());
+        when(taskRepository.findOwnedVersionsByUuidIn(anyList())).thenReturn(List.of(
+                new TaskOwnedVersion("alice", UUID.fromString(counted.uuid()), 0L),
+                new TaskOwnedVersion("alice", UUID.fromString(missed.uuid()), 0L)));
+
+        // Act
+        taskStatsService.reconcile();
+
+        // Assert
+        TaskStatsDTO stats = TaskOwners.callAs("alice", taskStatsService::getStats);
+        assertThat(stats.total()).isEqualTo(4);
+        assertThat(stats.completed()).isEqualTo(1);
+        assertThat(stats.byStatus()).containsEntry("TODO", 3L).containsEntry("DONE", 1L);
+    }
+
+    @Test
+    @DisplayName("Should count each owner's tasks apart and sum them for root callers")
+    void getStats_ReturnsCountersOfCurrentOwner() {
+        // Arrange
+        TaskOwners.runAs("alice", () -> taskStatsService.onTaskChanged(TaskChangedEvent.created(task("HIGH", "TODO", false, null))));
+        TaskOwners.runAs("bob", () -> {
+            taskStatsService.onTaskChanged(TaskChangedEvent.created(task("LOW", "DONE", true, null)));
+            taskStatsService.onTaskChanged(TaskChangedEvent.created(task("LOW", "TODO", false, null)));
+        });
+
+        // Act
+        TaskStatsDTO alice = TaskOwners.callAs("alice", taskStatsService::getStats);
+        TaskStatsDTO carol = TaskOwners.callAs("carol", taskStatsService::getStats);
+        TaskStatsDTO everyone = TaskOwners.callAs(TaskOwners.ROOT, taskStatsService::getStats);
+
+        // Assert
+        assertThat(alice.total()).isEqualTo(1);
+        assertThat(alice.byPriority()).containsEntry("HIGH", 1L).containsEntry("LOW", 0L);
+        assertThat(carol.total()).isZero();
+        assertThat(everyone.total()).isEqualTo(3);
+        assertThat(everyone.completed()).isEqualTo(1);
+    }
+
+    private static TaskDTO task(String priority, String status, boolean completed, LocalDate dueDate) {
+        return TaskDTO.builder()
+                .uuid(UUID.randomUUID().toString())
+                .title("Task")
+                .priority(priority)
+                .status(status)
+                .categoryName("Work")
+                .completed(completed)
+                .dueDate(dueDate)
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.dto.TaskSyncDTO;
+import com.usef.workshop.todo.exception.SyncTokenExpiredException;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.repo.TaskTombstoneRepository;
+import com.usef.workshop.todo.service.TaskSyncServiceImpl;
+import com.usef.workshop.todo.service.TaskSyncToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskSyncServiceUnitTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskTombstoneRepository tombstoneRepository;
+
+    private TaskSyncServiceImpl taskSyncService;
+
+    @BeforeEach
+    void setUp() {
+        taskSyncService = new TaskSyncServiceImpl(taskRepository, tombstoneRepository,
+                Duration.ofSeconds(5), Duration.ofDays(30));
+    }
+
+    @Test
+    @DisplayName("Should return changes and deletions after the token with the last change as next token")
+    void sync_WhenMoreChanges_ReturnsKeysetToken() {
+        // Arrange
+        TaskSyncToken since = new TaskSyncToken(LocalDateTime.now().minusHours(1), UUID.randomUUID());
+        TaskDTO first = task(since.updatedAt().plusMinutes(1));
+        TaskDTO second = task(since.updatedAt().plusMinutes(2));
+        UUID deleted = UUID.randomUUID();
+        when(taskRepository.findTaskDTOsUpdatedAfter(eq(since.updatedAt()), eq(since.uuid()), any(), eq(PageRequest.ofSize(2))))
+                .thenReturn(List.of(first, second));
+        when(tombstoneRepository.findUuidsDeletedBetween(since.updatedAt(), first.updatedAt())).thenReturn(List.of(deleted));
+
+        // Act
+        TaskSyncDTO sync = taskSyncService.sync(since.encode(), 1);
+
+        // Assert
+        assertThat(sync.changed()).containsExactly(first);
+        assertThat(sync.deleted()).containsExactly(deleted.toString());
+        assertThat(sync.hasMore()).isTrue();
+        assertThat(TaskSyncToken.decode(sync.nextToken()))
+                .isEqualTo(new TaskSyncToken(first.updatedAt(), UUID.fromString(first.uuid())));
+    }
+
+    @Test
+    @DisplayName("Should refuse a token older than the tombstone retention")
+    void sync_WhenTokenExpired_ThrowsException() {
+        String token = new TaskSyncToken(LocalDateTime.now().minusDays(31), UUID.randomUUID()).encode();
+
+        assertThatThrownBy(() -> taskSyncService.sync(token, 10))
+                .isInstanceOf(SyncTokenExpiredException.class);
+    }
+
+    private static TaskDTO task(LocalDateTime updatedAt) {
+        return TaskDTO.builder()
+                .uuid(UUID.randomUUID().toString())
+                .title("Task " + updatedAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
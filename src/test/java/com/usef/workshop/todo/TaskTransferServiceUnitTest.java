@@ -0,0 +1,138 @@
+package com.usef.workshop.todo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usef.workshop.todo.controller.dto.BulkItemResultDTO;
+import com.usef.workshop.todo.controller.dto.TaskDTO;
+import com.usef.workshop.todo.controller.dto.TaskImportJobDTO;
+import com.usef.workshop.todo.repo.TaskRepository;
+import com.usef.workshop.todo.service.TaskOwners;
+import com.usef.workshop.todo.service.TaskService;
+import com.usef.workshop.todo.service.TaskTransferServiceImpl;
+import com.usef.workshop.todo.service.transfer.TaskFileFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskTransferServiceUnitTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Mock
+    private TaskService taskService;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private TaskTransferServiceImpl taskTransferService;
+
+    private TaskOwners.Binding owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = TaskOwners.bind(TaskOwners.DEFAULT);
+        taskTransferService = new TaskTransferServiceImpl(taskService, taskRepository, objectMapper,
+                2, 1, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.close();
+        taskTransferService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should import the valid rows in chunks and report the others by row number")
+    void startImport_ReportsFailedRows() throws Exception {
+        // Arrange
+        String taken = UUID.randomUUID().toString();
+        String csv = """
+                title,priority,categoryName,dueDate,uuid
+                First,HIGH,Work,2025-07-28,
+                Second,LOW,Work,not-a-date,
+                Third,MEDIUM,Work,,%s
+                Fourth,LOW,Work,,
+                """.formatted(taken);
+        when(taskRepository.findExistingUuids(anyCollection())).thenReturn(List.of(UUID.fromString(taken)));
+        when(taskService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<TaskDTO> tasks = invocation.getArgument(0);
+            return tasks.stream()
+                    .map(task -> BulkItemResultDTO.builder().status(201).task(task).build())
+                    .toList();
+        });
+
+        // Act
+        TaskImportJobDTO job = awaitFinished(taskTransferService.startImport(TaskFileFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))).id());
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        taskTransferService.writeImportErrors(job.id(), errors);
+
+        // Assert
+        assertThat(job.status()).isEqualTo("COMPLETED");
+        assertThat(job.processed()).isEqualTo(4);
+        assertThat(job.created()).isEqualTo(2);
+        assertThat(job.failed()).isEqualTo(2);
+        List<BulkItemResultDTO> failures = objectMapper.readerFor(BulkItemResultDTO.class)
+                .<BulkItemResultDTO>readValues(errors.toByteArray())
+                .readAll();
+        assertThat(failures).extracting(BulkItemResultDTO::index).containsExactly(2, 3);
+        assertThat(failures).extracting(BulkItemResultDTO::status).containsExactly(400, 409);
+    }
+
+    @Test
+    @DisplayName("Should export a header and one CSV row per task")
+    void export_WritesCsvRows() throws Exception {
+        // Arrange
+        TaskDTO task = TaskDTO.builder()
+                .uuid(UUID.randomUUID().toString())
+                .title("Quoted, \"title\"")
+                .priority("HIGH")
+                .dueDate(LocalDate.of(2025, 7, 28))
+                .build();
+        doAnswer(invocation -> {
+            invocation.<Consumer<TaskDTO>>getArgument(0).accept(task);
+            return null;
+        }).when(taskService).streamAllOrderedByCreatedAt(any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        taskTransferService.export(TaskFileFormat.CSV, out);
+
+        // Assert
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).containsExactly(
+                "uuid,title,description,priority,categoryName,completed,status,dueDate,reminderDateTime,createdAt,updatedAt,version",
+                task.uuid() + ",\"Quoted, \"\"title\"\"\",,HIGH,,,,2025-07-28,,,,");
+    }
+
+    private TaskImportJobDTO awaitFinished(String id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            TaskImportJobDTO job = taskTransferService.findImportJob(id);
+            if (job.finishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Import " + id + " did not finish");
+    }
+}
@@ -3,7 +3,8 @@ package com.usef.workshop.todo;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// The completions write-ahead log goes to a temp dir, not into the working directory
+@SpringBootTest(properties = "todo.completions.wal-dir=${java.io.tmpdir}/todo-completions-test")
 class TodoAppApplicationTests {
 
 	@Test
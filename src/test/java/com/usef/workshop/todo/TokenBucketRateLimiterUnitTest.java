@@ -0,0 +1,50 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.config.limit.TokenBucketRateLimiter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterUnitTest {
+
+    @Test
+    @DisplayName("Should admit a burst and then refuse with the wait until the next token")
+    void tryAcquire_WhenBurstUsed_ReturnsWait() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 3, 100);
+
+        // Act
+        long first = limiter.tryAcquire("alice", "searchTasks", 1);
+        long second = limiter.tryAcquire("alice", "searchTasks", 1);
+        long third = limiter.tryAcquire("alice", "searchTasks", 1);
+        long refused = limiter.tryAcquire("alice", "searchTasks", 1);
+
+        // Assert
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isZero();
+        assertThat(refused).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.tryAcquire("alice", "getTaskByUuid", 1)).isZero();
+        assertThat(limiter.tryAcquire("bob", "searchTasks", 1)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should take as many tokens as the request weighs")
+    void tryAcquire_WhenWeighted_TakesWeightTokens() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 10, 100);
+
+        // Act
+        long first = limiter.tryAcquire("alice", "getAllTasks", 5);
+        long second = limiter.tryAcquire("alice", "getAllTasks", 5);
+        long refused = limiter.tryAcquire("alice", "getAllTasks", 5);
+
+        // Assert
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(refused).isGreaterThan(TimeUnit.SECONDS.toNanos(4));
+    }
+}
@@ -0,0 +1,35 @@
+package com.usef.workshop.todo;
+
+import com.usef.workshop.todo.entity.UuidV7;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit Test for the time-ordered task uuids.
+ */
+class UuidV7Test {
+
+    @Test
+    @DisplayName("Should generate version 7 uuids in creation order, stamped with the current time")
+    void generate_IsTimeOrdered() {
+        long before = System.currentTimeMillis();
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            uuids.add(UuidV7.generate());
+        }
+
+        assertThat(uuids).allSatisfy(uuid -> {
+            assertThat(uuid.version()).isEqualTo(7);
+            assertThat(uuid.variant()).isEqualTo(2);
+        });
+        // Same order as PostgreSQL's byte-wise uuid comparison, since the timestamp's top bit is 0 until year 6429
+        assertThat(uuids).isSorted().doesNotHaveDuplicates();
+        assertThat(uuids.get(0).getMostSignificantBits() >>> 16).isGreaterThanOrEqualTo(before);
+    }
+}